@@ -0,0 +1,70 @@
+package collatz;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+
+//Load test of the batch query service, in process and over the loopback
+//endpoint, with many concurrent callers issuing bursts of seeds
+@State(Scope.Benchmark)
+public class BatchQueryBenchmark {
+
+    @Param({"1", "64", "4096"})
+    int batch;
+
+    BatchQueryService service;
+    QueryServer server;
+    HttpClient client;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        service = BatchQueryService.create();
+        server = QueryServer.start(service, 0);
+        client = HttpClient.newHttpClient();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.close();
+        service.close();
+    }
+
+    long[] seeds() {
+        long[] seeds = new long[batch];
+        for (int i = 0; i < batch; i++) {
+            seeds[i] = (1L << 40) + ThreadLocalRandom.current().nextInt(1 << 20);
+        }
+        return seeds;
+    }
+
+    @Benchmark
+    @Threads(64)
+    public int[] inProcessLengths() {
+        return service.lengths(seeds()).join();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public String loopbackLengths() throws IOException, InterruptedException {
+        StringBuilder query = new StringBuilder("/length?seeds=");
+        for (long seed : seeds()) {
+            query.append(seed).append(',');
+        }
+        query.setLength(query.length() - 1);
+        HttpRequest request = HttpRequest.newBuilder(
+                URI.create("http://127.0.0.1:" + server.port() + query)).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+    }
+}
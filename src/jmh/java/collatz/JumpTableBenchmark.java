@@ -0,0 +1,34 @@
+package collatz;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+public class JumpTableBenchmark {
+
+    @Param({"8", "12", "16", "20"})
+    int bits;
+
+    @Param({"1000000", "10000000"})
+    long n;
+
+    JumpTable table;
+
+    @Setup
+    public void setup() {
+        table = JumpTable.of(bits);
+    }
+
+    @Benchmark
+    public int[] jumpSequenceLengths() {
+        return table.computeSequenceLengths(n);
+    }
+
+    @Benchmark
+    public int jumpLengthOfSequence() {
+        return table.lengthOf(670617279);
+    }
+}
@@ -0,0 +1,74 @@
+package collatz;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+//Random lookups into the table formats holding the same lengths
+@State(Scope.Benchmark)
+public class LengthTableBenchmark {
+
+    @Param({"1000000", "40000000"})
+    int n;
+
+    int[] array;
+    LengthTable offHeap;
+    LengthTable packed;
+    LengthTable reduced;
+    int[] seeds;
+
+    @Setup
+    public void setup() {
+        array = Collatz.memoizedComputeSequenceLengths(n);
+        offHeap = Collatz.memoizedComputeSequenceLengthTable(n);
+        packed = Collatz.packedComputeSequenceLengthTable(n);
+        reduced = Collatz.reducedComputeSequenceLengthTable(n);
+        seeds = new int[1 << 16];
+        Random random = new Random(42);
+        for (int i = 0; i < seeds.length; i++) {
+            seeds[i] = 1 + random.nextInt(n);
+        }
+    }
+
+    @Benchmark
+    public long intArray() {
+        long sum = 0;
+        for (int seed : seeds) sum += array[seed];
+        return sum;
+    }
+
+    @Benchmark
+    public long offHeap() {
+        long sum = 0;
+        for (int seed : seeds) sum += offHeap.get(seed);
+        return sum;
+    }
+
+    @Benchmark
+    public long packed() {
+        long sum = 0;
+        for (int seed : seeds) sum += packed.get(seed);
+        return sum;
+    }
+
+    @Benchmark
+    public long reduced() {
+        long sum = 0;
+        for (int seed : seeds) sum += reduced.get(seed);
+        return sum;
+    }
+
+    @Benchmark
+    public LengthTable packedFill() {
+        return Collatz.packedComputeSequenceLengthTable(n);
+    }
+
+    @Benchmark
+    public LengthTable reducedFill() {
+        return Collatz.reducedComputeSequenceLengthTable(n);
+    }
+}
@@ -0,0 +1,36 @@
+package collatz;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+//Cost of the instrumentation, switched off and on
+@State(Scope.Benchmark)
+public class MetricsBenchmark {
+
+    @Param({"false", "true"})
+    boolean enabled;
+
+    @Setup
+    public void setup() {
+        Metrics.setEnabled(enabled);
+    }
+
+    @TearDown
+    public void tearDown() {
+        Metrics.setEnabled(false);
+    }
+
+    @Benchmark
+    public int[] memoizedSequenceLengths() {
+        return Collatz.memoizedComputeSequenceLengths(1000000);
+    }
+
+    @Benchmark
+    public int lengthOfSequence() {
+        return Collatz.lengthOfSequence(670617279);
+    }
+}
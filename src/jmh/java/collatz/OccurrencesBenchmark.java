@@ -0,0 +1,21 @@
+package collatz;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+public class OccurrencesBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    long n;
+
+    @Param({"100", "10000"})
+    int counts;
+
+    @Benchmark
+    public int[] occurrences() {
+        return Collatz.occurrences(n, counts);
+    }
+}
@@ -0,0 +1,41 @@
+package collatz;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigInteger;
+import java.util.List;
+
+//Record search against the table scan it replaces
+@State(Scope.Benchmark)
+public class RecordSearchBenchmark {
+
+    @Param({"1000000", "10000000"})
+    int hi;
+
+    @Benchmark
+    public List<Pair<Long, Integer>> delayRecords() {
+        return Collatz.delayRecords(hi);
+    }
+
+    @Benchmark
+    public List<Pair<Long, BigInteger>> pathRecords() {
+        return Collatz.pathRecords(hi);
+    }
+
+    @Benchmark
+    public int delayRecordsByTableScan() {
+        int[] lengths = Collatz.memoizedComputeSequenceLengths(hi);
+        int records = 0;
+        int best = 0;
+        for (int i = 1; i <= hi; i++) {
+            if (lengths[i] > best) {
+                best = lengths[i];
+                records++;
+            }
+        }
+        return records;
+    }
+}
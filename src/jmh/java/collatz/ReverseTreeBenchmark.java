@@ -0,0 +1,38 @@
+package collatz;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+//Inverse queries from the reverse tree against the forward scan they
+//replace
+@State(Scope.Benchmark)
+public class ReverseTreeBenchmark {
+
+    @Param({"40", "60"})
+    int length;
+
+    @Param({"10000000"})
+    int bound;
+
+    @Benchmark
+    public long[] seedsWithLength() {
+        return Collatz.seedsWithLength(length, bound);
+    }
+
+    @Benchmark
+    public int forwardScan() {
+        int[] lengths = Collatz.memoizedComputeSequenceLengths(bound);
+        int count = 0;
+        for (int i = 1; i <= bound; i++) {
+            if (lengths[i] == length) count++;
+        }
+        return count;
+    }
+
+    @Benchmark
+    public long[] seedsPassingThrough() {
+        return Collatz.seedsPassingThrough(9232, length, bound);
+    }
+}
@@ -0,0 +1,49 @@
+package collatz;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+@State(Scope.Benchmark)
+public class SeedCacheBenchmark {
+
+    @Param({"1048576", "67108864"})
+    long budget;
+
+    //Seeds are drawn from a window of this size above 2^40
+    @Param({"4096", "1048576"})
+    int window;
+
+    SeedCache cache;
+
+    @Setup
+    public void setup() {
+        cache = SeedCache.withMemoryBudget(budget);
+    }
+
+    long seed() {
+        return (1L << 40) + ThreadLocalRandom.current().nextInt(window);
+    }
+
+    @Benchmark
+    public int uncachedLengthOfSequence() {
+        return Collatz.lengthOfSequence(seed());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int cachedLengthOfSequence() {
+        return cache.lengthOf(seed());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long cachedLargestValueInSequence() {
+        return cache.peakOf(seed());
+    }
+}
@@ -0,0 +1,48 @@
+package collatz;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+public class SequenceLengthsBenchmark {
+
+    @Param({"100000", "1000000", "10000000"})
+    long n;
+
+    @Benchmark
+    public int[] simple() {
+        return Collatz.simpleComputeSequenceLengths(n);
+    }
+
+    @Benchmark
+    public int[] memoized() {
+        return Collatz.memoizedComputeSequenceLengths(n);
+    }
+
+    @Benchmark
+    public int[] reduced() {
+        return Collatz.reducedComputeSequenceLengths(n);
+    }
+
+    @Benchmark
+    public int[] vector() {
+        return Collatz.vectorComputeSequenceLengths(n);
+    }
+
+    @Benchmark
+    public int[] parallel() {
+        return Collatz.parallelComputeSequenceLengths(n);
+    }
+
+    @Benchmark
+    public long[] memoizedPeaks() {
+        return Collatz.memoizedComputePeakValues(n);
+    }
+
+    @Benchmark
+    public long[] parallelPeaks() {
+        return Collatz.parallelComputePeakValues(n);
+    }
+}
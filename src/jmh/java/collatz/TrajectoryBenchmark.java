@@ -0,0 +1,50 @@
+package collatz;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+@State(Scope.Benchmark)
+public class TrajectoryBenchmark {
+
+    //Seeds with short, medium and record-long trajectories
+    @Param({"27", "837799", "670617279"})
+    long seed;
+
+    long[] buffer = new long[1024];
+    TrajectoryStats stats = new TrajectoryStats();
+    WideTrajectory wide = new WideTrajectory();
+
+    @Benchmark
+    public List<Long> sequenceOf() {
+        return Collatz.sequenceOf(seed);
+    }
+
+    @Benchmark
+    public int sequenceIntoBuffer() {
+        return Collatz.sequenceOf(seed, buffer);
+    }
+
+    @Benchmark
+    public int lengthOfSequence() {
+        return Collatz.lengthOfSequence(seed);
+    }
+
+    @Benchmark
+    public long largestValueInSequence() {
+        return Collatz.largestValueInSequence(seed);
+    }
+
+    @Benchmark
+    public TrajectoryStats trajectoryStats() {
+        return stats.walk(seed);
+    }
+
+    @Benchmark
+    public int wideLengthOfSequence() {
+        return wide.walk(seed).length();
+    }
+}
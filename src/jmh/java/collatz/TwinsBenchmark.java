@@ -0,0 +1,35 @@
+package collatz;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+@State(Scope.Benchmark)
+public class TwinsBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    long hi;
+
+    @Benchmark
+    public List<Pair<Long, Integer>> equalLengthTwins() {
+        return Collatz.equalLengthTwins(1, hi);
+    }
+
+    @Benchmark
+    public List<Pair<Long, Long>> equalMaxValueTwins() {
+        return Collatz.equalMaxValueTwins(1, hi);
+    }
+
+    @Benchmark
+    public TwinResults lengthTwins() {
+        return Collatz.lengthTwins(1, hi);
+    }
+
+    @Benchmark
+    public TwinResults maxValueTwins() {
+        return Collatz.maxValueTwins(1, hi);
+    }
+}
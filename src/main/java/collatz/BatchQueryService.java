@@ -0,0 +1,197 @@
+package collatz;
+
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+//An asynchronous facade over the Collatz queries for callers that issue many
+//seeds or ranges at once.
+//
+//Every query runs as its own task on virtual threads, so bursts of blocking
+//callers do not pile up on a fixed pool. Single-seed and range queries that
+//are already in flight are coalesced: a duplicate request shares the running
+//computation instead of starting another one, and so does a seed of a batch
+//whose single-seed query is in flight. Single-seed lookups go through a
+//SeedCache, so repeated and overlapping seeds stay cheap after completion.
+class BatchQueryService implements AutoCloseable {
+
+    //Seeds of a batch handled by one task
+    static final int BATCH_CHUNK = 1 << 12;
+
+    static final long DEFAULT_CACHE_BUDGET = 64L << 20;
+
+    private final ExecutorService executor;
+    private final SeedCache cache;
+    private final ConcurrentHashMap<Query, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder coalesced = new LongAdder();
+
+    BatchQueryService(ExecutorService executor, SeedCache cache) {
+        this.executor = executor;
+        this.cache = cache;
+    }
+
+    static BatchQueryService create() {
+        return create(DEFAULT_CACHE_BUDGET);
+    }
+
+    static BatchQueryService create(long cacheBudget) {
+        return new BatchQueryService(Executors.newVirtualThreadPerTaskExecutor(),
+                SeedCache.withMemoryBudget(cacheBudget));
+    }
+
+    SeedCache cache() {
+        return cache;
+    }
+
+    //Requests that joined a computation already in flight
+    long coalesced() {
+        return coalesced.sum();
+    }
+
+    CompletableFuture<Integer> length(long seed) {
+        return coalesce(new Query(Query.LENGTH, seed, seed), () -> cache.lengthOf(seed));
+    }
+
+    CompletableFuture<Long> peak(long seed) {
+        return coalesce(new Query(Query.PEAK, seed, seed), () -> cache.peakOf(seed));
+    }
+
+    CompletableFuture<TwinResults> lengthTwins(long lo, long hi) {
+        return coalesce(new Query(Query.LENGTH_TWINS, lo, hi), () -> Collatz.lengthTwins(lo, hi));
+    }
+
+    CompletableFuture<TwinResults> maxValueTwins(long lo, long hi) {
+        return coalesce(new Query(Query.MAX_VALUE_TWINS, lo, hi), () -> Collatz.maxValueTwins(lo, hi));
+    }
+
+    //Lengths of many seeds, in the order of the seeds
+    CompletableFuture<int[]> lengths(long... seeds) {
+        int[] lengths = new int[seeds.length];
+        return batch(Query.LENGTH, seeds, (i, seed) -> lengths[i] = cache.lengthOf(seed),
+                (i, value) -> lengths[i] = (Integer) value).thenApply(done -> lengths);
+    }
+
+    //Peaks of many seeds, in the order of the seeds, SeedCache.WIDE_PEAK
+    //for the seeds whose peak does not fit into a long
+    CompletableFuture<long[]> peaks(long... seeds) {
+        long[] peaks = new long[seeds.length];
+        return batch(Query.PEAK, seeds, (i, seed) -> peaks[i] = cache.peakOrWide(seed),
+                (i, value) -> peaks[i] = (Long) value).thenApply(done -> peaks);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> coalesce(Query query, Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        CompletableFuture<?> running = inFlight.putIfAbsent(query, future);
+        if (running != null) {
+            coalesced.increment();
+            return (CompletableFuture<T>) running.copy();
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(task.call());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                } finally {
+                    inFlight.remove(query, future);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(query, future);
+            future.completeExceptionally(e);
+        }
+        //Callers get their own view, so completing it cannot leak to the others
+        return future.copy();
+    }
+
+    //Runs a batch in chunks of BATCH_CHUNK seeds. A seed whose single-seed
+    //query is in flight takes that query's result once it completes instead
+    //of being computed again, unless that query fails, as a single peak past
+    //long type does.
+    private CompletableFuture<Void> batch(int kind, long[] seeds, SeedTask task, SeedResult joined) {
+        Queue<CompletableFuture<?>> joins = new ConcurrentLinkedQueue<>();
+        CompletableFuture<?>[] parts = new CompletableFuture<?>[(seeds.length + BATCH_CHUNK - 1) / BATCH_CHUNK];
+        for (int i = 0; i < parts.length; i++) {
+            int start = i * BATCH_CHUNK;
+            int end = Math.min(seeds.length, start + BATCH_CHUNK);
+            parts[i] = CompletableFuture.runAsync(() -> {
+                for (int j = start; j < end; j++) {
+                    CompletableFuture<?> running = inFlight.get(new Query(kind, seeds[j], seeds[j]));
+                    if (running == null) {
+                        task.run(j, seeds[j]);
+                    } else {
+                        int index = j;
+                        coalesced.increment();
+                        joins.add(running.handle((value, failure) -> {
+                            if (failure == null) {
+                                joined.accept(index, value);
+                            } else {
+                                task.run(index, seeds[index]);
+                            }
+                            return null;
+                        }));
+                    }
+                }
+            }, executor);
+        }
+        return CompletableFuture.allOf(parts)
+                .thenCompose(done -> CompletableFuture.allOf(joins.toArray(new CompletableFuture<?>[0])));
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private interface SeedTask {
+        void run(int index, long seed);
+    }
+
+    private interface SeedResult {
+        void accept(int index, Object value);
+    }
+
+    //Identity of a coalescable query
+    private static final class Query {
+        static final int LENGTH = 0;
+        static final int PEAK = 1;
+        static final int LENGTH_TWINS = 2;
+        static final int MAX_VALUE_TWINS = 3;
+
+        final int kind;
+        final long lo;
+        final long hi;
+
+        Query(int kind, long lo, long hi) {
+            this.kind = kind;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Query)) return false;
+            Query other = (Query) o;
+            return kind == other.kind && lo == other.lo && hi == other.hi;
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(new long[]{kind, lo, hi});
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package collatz;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+//Parallel fill of a memo table over [0, n]. The range is cut into fixed size
+//blocks which workers on a ForkJoinPool claim in ascending order, so lower
+//blocks tend to be finished by the time higher blocks need them as a memo.
+abstract class BlockFill {
+
+    static final int DEFAULT_BLOCK_SIZE = 1 << 16;
+
+    final int n;
+    final int blockSize;
+    private final AtomicIntegerArray finished;
+    private final AtomicInteger nextBlock = new AtomicInteger();
+
+    BlockFill(final long n, int blockSize) {
+        if (n < 1 || n >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Input value out of range!");
+        }
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size needs to be greater than zero!");
+        }
+        this.n = (int) n;
+        this.blockSize = blockSize;
+        this.finished = new AtomicIntegerArray(this.n / blockSize + 1);
+    }
+
+    //Fills the entries start..end, where start may be 0
+    abstract void fill(int start, int end);
+
+    //Whether the entry m below the current seed may be used as a memo by
+    //the block starting at start
+    final boolean available(long m, int start) {
+        return m >= start || finished.get((int) (m / blockSize)) != 0;
+    }
+
+    final void run(ForkJoinPool pool) {
+        List<ForkJoinTask<?>> workers = new ArrayList<>();
+        for (int i = 0; i < pool.getParallelism(); i++) {
+            workers.add(pool.submit(this::drain));
+        }
+        for (ForkJoinTask<?> worker : workers) {
+            worker.join();
+        }
+    }
+
+    private void drain() {
+        int block;
+        while ((block = nextBlock.getAndIncrement()) < finished.length()) {
+            int start = block * blockSize;
+            fill(start, (int) Math.min((long) start + blockSize - 1, n));
+            //Publishes the block's entries to every worker that reads the flag
+            finished.set(block, 1);
+        }
+    }
+}
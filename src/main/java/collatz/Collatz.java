@@ -1,28 +1,58 @@
 package collatz;
 
+import java.io.IOException;
+import java.math.BigInteger;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class Collatz {
 
+    //Largest table that is computed into a plain int[]. Beyond this the
+    //range queries switch to an off-heap LengthTable.
+    static final int TABLE_LIMIT = 40960000;
+
+    private static final boolean VECTOR_API =
+            ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
     static int collatz(long number) {
         if (number < 1) {
             throw new IllegalArgumentException("Number needs to be greater than zero!");
         }
-        if (number == 1) {
-            return 1;
-        } else if (number % 2 == 0) {
-            return collatz(number / 2);
-        } else {
-            return collatz(3 * number + 1);
+        long start = Metrics.start();
+        long currentN = number;
+        while (currentN != 1) {
+            if (currentN % 2 == 0) currentN /= 2;
+            else if (currentN > WideTrajectory.STEP_LIMIT) {
+                //The wide walk only returns once it has reached 1
+                WideTrajectory.lengthOf(currentN);
+                break;
+            } else currentN = 3 * currentN + 1;
         }
+        Metrics.stop(Metrics.Operation.COLLATZ, start);
+        return 1;
+    }
+
+    //Checks that every seed in [lo, hi] converges, assuming all seeds below lo
+    //are known to converge
+    static boolean allConverge(final long lo, final long hi) {
+        long start = Metrics.start();
+        boolean converge = new ConvergenceVerifier(ConvergenceVerifier.DEFAULT_SIEVE_BITS)
+                .verify(lo, hi, ForkJoinPool.commonPool(), verified -> {
+                }) == -1;
+        Metrics.stop(Metrics.Operation.ALL_CONVERGE, start);
+        return converge;
     }
 
     static int[] simpleComputeSequenceLengths(final long n) {
+        long start = Metrics.start();
         int[] sequenceLengths = new int[((int) n) + 1];
         long currentN;
         int count;
+        long steps = 0;
         for (int i = 1; i <= (int) n; i++) {
             currentN = i;
             count = 0;
@@ -30,17 +60,28 @@ public class Collatz {
                 count++;
                 if (currentN == 1) break;
                 else if (currentN % 2 == 0) currentN /= 2;
-                else currentN = currentN * 3 + 1;
+                else if (currentN > WideTrajectory.STEP_LIMIT) {
+                    //Finish the trajectory beyond the range of long type
+                    count += WideTrajectory.lengthOf(currentN) - 1;
+                    break;
+                } else currentN = currentN * 3 + 1;
             } while (true);
             sequenceLengths[i] = count;
+            steps += count;
         }
+        Metrics.kernel(n, steps, 0);
+        Metrics.table(4 * (n + 1));
+        Metrics.stop(Metrics.Operation.SIMPLE_LENGTHS, start);
         return sequenceLengths;
     }
 
     static int[] memoizedComputeSequenceLengths(final long n) {
+        long start = Metrics.start();
         int[] sequenceLengths = new int[((int) n) + 1];
         long currentN;
         int count;
+        long steps = 0;
+        long memoHits = 0;
         for (int i = 1; i <= (int) n; i++) {
             currentN = i;
             count = 0;
@@ -48,23 +89,171 @@ public class Collatz {
                 //Check if the current sequence length has been calculated already
                 if (currentN < i) {
                     count += sequenceLengths[(int) currentN];
+                    memoHits++;
                     break;
                 }
                 count++;
+                steps++;
                 if (currentN == 1) break;
                 else if (currentN % 2 == 0) currentN /= 2;
-                else currentN = currentN * 3 + 1;
+                else if (currentN > WideTrajectory.STEP_LIMIT) {
+                    count += WideTrajectory.lengthOf(currentN) - 1;
+                    break;
+                } else currentN = currentN * 3 + 1;
+            } while (true);
+            sequenceLengths[i] = count;
+        }
+        Metrics.kernel(n, steps, memoHits);
+        Metrics.table(4 * (n + 1));
+        Metrics.stop(Metrics.Operation.MEMOIZED_LENGTHS, start);
+        return sequenceLengths;
+    }
+
+    //Vectorized variant of the memoized table. Falls back to the scalar
+    //kernel when the JVM runs without the incubating Vector API module or
+    //the hardware has no vectors of two longs.
+    static int[] vectorComputeSequenceLengths(final long n) {
+        if (!VECTOR_API || VectorSequenceLengths.LANES < 2) {
+            return memoizedComputeSequenceLengths(n);
+        }
+        long start = Metrics.start();
+        int[] sequenceLengths = VectorSequenceLengths.compute(n);
+        Metrics.table(4 * (n + 1));
+        Metrics.stop(Metrics.Operation.VECTOR_LENGTHS, start);
+        return sequenceLengths;
+    }
+
+    //Memoized table that only walks the seeds congruent to 3 mod 4. Even
+    //seeds and seeds congruent to 1 mod 4 are derived inline from a smaller
+    //entry, see ReducedLengthTable.
+    static int[] reducedComputeSequenceLengths(final long n) {
+        long start = Metrics.start();
+        int[] sequenceLengths = new int[((int) n) + 1];
+        long currentN;
+        int count;
+        long steps = 0;
+        for (int i = 1; i <= (int) n; i++) {
+            if (i == 1) {
+                sequenceLengths[i] = 1;
+                continue;
+            } else if (i % 2 == 0) {
+                sequenceLengths[i] = sequenceLengths[i / 2] + 1;
+                continue;
+            } else if (i % 4 == 1) {
+                sequenceLengths[i] = sequenceLengths[3 * (i / 4) + 1] + 3;
+                continue;
+            }
+            currentN = i;
+            count = 0;
+            do {
+                if (currentN < i) {
+                    count += sequenceLengths[(int) currentN];
+                    break;
+                }
+                count++;
+                steps++;
+                if (currentN % 2 == 0) currentN /= 2;
+                else if (currentN > WideTrajectory.STEP_LIMIT) {
+                    count += WideTrajectory.lengthOf(currentN) - 1;
+                    break;
+                } else currentN = currentN * 3 + 1;
             } while (true);
             sequenceLengths[i] = count;
         }
+        Metrics.kernel(n, steps, n - 1);
+        Metrics.table(4 * (n + 1));
+        Metrics.stop(Metrics.Operation.REDUCED_LENGTHS, start);
+        return sequenceLengths;
+    }
+
+    //Reduced table that keeps only the seeds congruent to 3 mod 4, bit
+    //packed, in about 2.5 bits per seed
+    static ReducedLengthTable reducedComputeSequenceLengthTable(final long n) {
+        long start = Metrics.start();
+        ReducedLengthTable sequenceLengths = ReducedLengthTable.allocate(n);
+        sequenceLengths.fill();
+        Metrics.table(PackedLengthTable.bytesFor(ReducedLengthTable.storedBound(n)));
+        Metrics.stop(Metrics.Operation.REDUCED_LENGTH_TABLE, start);
+        return sequenceLengths;
+    }
+
+    static LengthTable memoizedComputeSequenceLengthTable(final long n) {
+        long start = Metrics.start();
+        LengthTable sequenceLengths = LengthTables.allocate(n);
+        LengthTables.fill(sequenceLengths, 1);
+        Metrics.table(OffHeapLengthTable.bytesFor(n));
+        Metrics.stop(Metrics.Operation.LENGTH_TABLE, start);
         return sequenceLengths;
     }
 
+    //The memoized table packed into the fewest bits per entry, for tables
+    //that should stay on the heap at a fraction of the size of an int[]
+    static PackedLengthTable packedComputeSequenceLengthTable(final long n) {
+        long start = Metrics.start();
+        PackedLengthTable sequenceLengths = PackedLengthTable.allocate(n);
+        LengthTables.fill(sequenceLengths, 1);
+        Metrics.table(PackedLengthTable.bytesFor(n));
+        Metrics.stop(Metrics.Operation.PACKED_LENGTH_TABLE, start);
+        return sequenceLengths;
+    }
+
+    static int[] parallelComputeSequenceLengths(final long n) {
+        long start = Metrics.start();
+        int[] sequenceLengths = ParallelSequenceLengths.compute(n, ForkJoinPool.commonPool(),
+                BlockFill.DEFAULT_BLOCK_SIZE);
+        Metrics.table(4 * (n + 1));
+        Metrics.stop(Metrics.Operation.PARALLEL_LENGTHS, start);
+        return sequenceLengths;
+    }
+
+    static long[] memoizedComputePeakValues(final long n) {
+        long start = Metrics.start();
+        long[] peakValues = new long[((int) n) + 1];
+        long currentN;
+        long peak;
+        long steps = 0;
+        long memoHits = 0;
+        for (int i = 1; i <= (int) n; i++) {
+            currentN = i;
+            peak = i;
+            do {
+                //Past the first drop below i the rest of the peak is known
+                if (currentN < i) {
+                    peak = Math.max(peak, peakValues[(int) currentN]);
+                    memoHits++;
+                    break;
+                }
+                steps++;
+                if (currentN > peak) peak = currentN;
+                if (currentN == 1) break;
+                else if (currentN % 2 == 0) currentN /= 2;
+                else currentN = currentN * 3 + 1;
+            } while (true);
+            peakValues[i] = peak;
+        }
+        Metrics.kernel(n, steps, memoHits);
+        Metrics.table(8 * (n + 1));
+        Metrics.stop(Metrics.Operation.MEMOIZED_PEAKS, start);
+        return peakValues;
+    }
+
+    static long[] parallelComputePeakValues(final long n) {
+        long start = Metrics.start();
+        long[] peakValues = ParallelPeakValues.compute(n, ForkJoinPool.commonPool(),
+                BlockFill.DEFAULT_BLOCK_SIZE);
+        Metrics.table(8 * (n + 1));
+        Metrics.stop(Metrics.Operation.PARALLEL_PEAKS, start);
+        return peakValues;
+    }
+
+    //Single-shot timing without warmup or forks, kept for the demo in main.
+    //Use the JMH benchmarks under src/jmh (gradle jmh) for real numbers.
+    @Deprecated
     static long doTimings(long n) {
         //Let's throw an IllegalArgumentException if n is beyond a large value,
         //since large values will throw an OutOfMemoryException. 40960000 works
         //on my system for this purpose.
-        int limit = 40960000;
+        int limit = TABLE_LIMIT;
         if (n > limit) {
             throw new IllegalArgumentException("Input number longer than " + limit + " !");
         } else if (n < 1) {
@@ -116,115 +305,305 @@ public class Collatz {
     }
 
     static List<Long> sequenceOf(final long n) {
-        //Check for values lesser than 1 or values that might push the result
-        //out of the max range of long type.
-        if (n < 1 || n > (Long.MAX_VALUE - 1) / 3) {
-            throw new IllegalArgumentException("Input value out of range!");
-        }
-
         List<Long> result = new ArrayList<>();
-        result.add(n);
-        if (n == 1) {
-            return result;
-        }
+        forEachInSequence(n, result::add);
+        return result;
+    }
+
+    //Walks the sequence of n without allocating, handing every value from n
+    //down to 1 to the visitor.
+    static void forEachInSequence(final long n, LongConsumer visitor) {
+        checkSeed(n);
+
+        long start = Metrics.start();
         long currentN = n;
+        visitor.accept(currentN);
         while (currentN > 1) {
             currentN = collatz_1(currentN);
-            result.add(currentN);
+            visitor.accept(currentN);
         }
-        return result;
+        Metrics.stop(Metrics.Operation.SEQUENCE_OF, start);
+    }
+
+    //Writes the sequence of n into the reusable buffer and returns its
+    //length. If the length exceeds the buffer only the first buffer.length
+    //values are written, so callers can grow the buffer and try again.
+    static int sequenceOf(final long n, long[] buffer) {
+        checkSeed(n);
+
+        long start = Metrics.start();
+        long currentN = n;
+        int length = 0;
+        do {
+            if (length < buffer.length) {
+                buffer[length] = currentN;
+            }
+            length++;
+            if (currentN == 1) break;
+            currentN = collatz_1(currentN);
+        } while (true);
+        Metrics.stop(Metrics.Operation.SEQUENCE_OF, start);
+        return length;
+    }
+
+    static TrajectoryStats trajectoryStats(long n) {
+        long start = Metrics.start();
+        TrajectoryStats stats = TrajectoryStats.of(n);
+        Metrics.kernel(1, stats.steps(), 0);
+        Metrics.stop(Metrics.Operation.TRAJECTORY_STATS, start);
+        return stats;
     }
 
     static int lengthOfSequence(long n) {
-        return sequenceOf(n).size();
+        long start = Metrics.start();
+        TrajectoryStats stats = TrajectoryStats.of(n);
+        Metrics.kernel(1, stats.steps(), 0);
+        Metrics.stop(Metrics.Operation.LENGTH_OF_SEQUENCE, start);
+        return stats.length();
     }
 
+    //Throws ArithmeticException for the seeds whose peak does not fit into
+    //a long, the first being TrajectoryStats.LONG_PEAK_BOUND + 1. The
+    //BigInteger overload handles every seed.
     static long largestValueInSequence(long n) {
-        List<Long> results = sequenceOf(n);
-        Collections.sort(results);
-        return results.get(results.size() - 1);
+        long start = Metrics.start();
+        TrajectoryStats stats = TrajectoryStats.of(n);
+        Metrics.kernel(1, stats.steps(), 0);
+        Metrics.stop(Metrics.Operation.LARGEST_VALUE, start);
+        return stats.peak();
+    }
+
+    //Single-seed queries that finish as soon as the trajectory reaches a seed
+    //that is already in the cache
+    static int lengthOfSequence(long n, SeedCache cache) {
+        long start = Metrics.start();
+        int length = cache.lengthOf(n);
+        Metrics.stop(Metrics.Operation.LENGTH_OF_SEQUENCE, start);
+        return length;
+    }
+
+    static long largestValueInSequence(long n, SeedCache cache) {
+        long start = Metrics.start();
+        long peak = cache.peakOf(n);
+        Metrics.stop(Metrics.Operation.LARGEST_VALUE, start);
+        return peak;
+    }
+
+    //Lengths and peaks of arbitrarily large seeds, leaving the range of long
+    //type only for the parts of the trajectory that need it
+    static int lengthOfSequence(BigInteger n) {
+        long start = Metrics.start();
+        int length = WideTrajectory.lengthOf(n);
+        Metrics.kernel(1, length - 1, 0);
+        Metrics.stop(Metrics.Operation.LENGTH_OF_SEQUENCE, start);
+        return length;
+    }
+
+    static BigInteger largestValueInSequence(BigInteger n) {
+        long start = Metrics.start();
+        BigInteger peak = WideTrajectory.peakOf(n);
+        Metrics.stop(Metrics.Operation.LARGEST_VALUE, start);
+        return peak;
+    }
+
+    private static void checkSeed(long n) {
+        //Check for values lesser than 1 or values that might push the result
+        //out of the max range of long type.
+        if (n < 1 || n > (Long.MAX_VALUE - 1) / 3) {
+            throw new IllegalArgumentException("Input value out of range!");
+        }
     }
 
     static List<Pair<Long, Integer>> equalLengthTwins(final long lo, final long hi) {
+        return lengthTwins(lo, hi).asLengthPairs();
+    }
+
+    static List<Pair<Long, Integer>> equalLengthTwins(final long lo, final long hi, LengthCache cache)
+            throws IOException {
+        return lengthTwins(lo, hi, cache).asLengthPairs();
+    }
+
+    static List<Pair<Long, Integer>> equalLengthTwins(final long lo, final long hi, GrowableLengthTable table) {
+        return lengthTwins(lo, hi, table).asLengthPairs();
+    }
+
+    static List<Pair<Long, Long>> equalMaxValueTwins(final long lo, final long hi) {
+        return maxValueTwins(lo, hi).asPairs();
+    }
+
+    static TwinResults lengthTwins(final long lo, final long hi) {
         //Make sure lo is actually lower than hi
         if (lo > hi) {
             throw new IllegalArgumentException("Incorrect input order!");
         }
-        //Check for values lesser than 1 or values that might push the result
-        //out of the max range of long type.
-        if (lo < 1 || lo > 40960000) {
+        //Check for values lesser than 1 or values whose table would not fit
+        //into memory or onto the disk.
+        if (lo < 1 || hi >= LengthTables.maxBound()) {
             throw new IllegalArgumentException("Input value out of range!");
         }
-        if (hi > 40960000) {
-            throw new IllegalArgumentException("Input value out of range!");
-        }
-
-        int[] sequenceLengths = memoizedComputeSequenceLengths(hi + 1);
 
-        List<Pair<Long, Integer>> result = new ArrayList<>();
-        for (int i = (int) lo; i <= (int) hi; i++) {
-            if (sequenceLengths[i] == sequenceLengths[i + 1]) {
-                Pair<Long, Integer> pair = new Pair<>((long) i, sequenceLengths[i]);
-                result.add(pair);
+        long start = Metrics.start();
+        TwinResults result;
+        if (hi >= TABLE_LIMIT) {
+            result = lengthTwins(lo, hi, memoizedComputeSequenceLengthTable(hi + 1));
+        } else {
+            int[] sequenceLengths = memoizedComputeSequenceLengths(hi + 1);
+            result = new TwinResults();
+            for (int i = (int) lo; i <= (int) hi; i++) {
+                if (sequenceLengths[i] == sequenceLengths[i + 1]) {
+                    result.add(i, sequenceLengths[i]);
+                }
             }
         }
+        Metrics.stop(Metrics.Operation.LENGTH_TWINS, start);
         return result;
     }
 
-    static List<Pair<Long, Long>> equalMaxValueTwins(final long lo, final long hi) {
+    static TwinResults lengthTwins(final long lo, final long hi, LengthCache cache) throws IOException {
         //Make sure lo is actually lower than hi
         if (lo > hi) {
             throw new IllegalArgumentException("Incorrect input order!");
         }
-        //Check for values lesser than 1 or values that might push the result
-        //out of the max range of long type.
-        if (lo < 1 || lo > 40960000) {
+        if (lo < 1) {
             throw new IllegalArgumentException("Input value out of range!");
         }
-        if (hi > 40960000) {
+        long start = Metrics.start();
+        TwinResults result = lengthTwins(lo, hi, cache.ensure(hi + 1));
+        Metrics.stop(Metrics.Operation.LENGTH_TWINS, start);
+        return result;
+    }
+
+    //Twins over a table that is kept across calls, so a growing hi only
+    //pays for the seeds it adds
+    static TwinResults lengthTwins(final long lo, final long hi, GrowableLengthTable table) {
+        //Make sure lo is actually lower than hi
+        if (lo > hi) {
+            throw new IllegalArgumentException("Incorrect input order!");
+        }
+        if (lo < 1) {
             throw new IllegalArgumentException("Input value out of range!");
         }
+        long start = Metrics.start();
+        table.extendTo(hi + 1);
+        TwinResults result = lengthTwins(lo, hi, (LengthTable) table);
+        Metrics.stop(Metrics.Operation.LENGTH_TWINS, start);
+        return result;
+    }
 
-        long[] maxValues = new long[(int) (hi - lo) + 2];
+    private static TwinResults lengthTwins(final long lo, final long hi, LengthTable sequenceLengths) {
+        TwinResults result = new TwinResults();
+        for (long i = lo; i <= hi; i++) {
+            if (sequenceLengths.get(i) == sequenceLengths.get(i + 1)) {
+                result.add(i, sequenceLengths.get(i));
+            }
+        }
+        return result;
+    }
 
-        for (int i = 0; i <= hi - lo + 1; i++) {
-            maxValues[i] = largestValueInSequence(lo + i);
+    static TwinResults maxValueTwins(final long lo, final long hi) {
+        //Make sure lo is actually lower than hi
+        if (lo > hi) {
+            throw new IllegalArgumentException("Incorrect input order!");
+        }
+        //Check for values lesser than 1 or seeds whose peak, or that of the
+        //seed after them, might not fit into a long.
+        if (lo < 1 || hi >= TrajectoryStats.LONG_PEAK_BOUND) {
+            throw new IllegalArgumentException("Input value out of range!");
         }
 
-        List<Pair<Long, Long>> result = new ArrayList<>();
-        for (int i = 0; i <= hi - lo; i++) {
-            if (maxValues[i] == maxValues[i + 1]) {
-                Pair<Long, Long> pair = new Pair<>(lo + i, maxValues[i + 1]);
-                result.add(pair);
+        long start = Metrics.start();
+        TwinResults result = new TwinResults();
+        if (hi > TABLE_LIMIT) {
+            //Past the table the peaks are computed in windows and never held
+            //in full
+            StreamSupport.stream(TwinSpliterator.equalMaxValueTwins(lo, hi), true)
+                    .forEachOrdered(twin -> result.add(twin.seed(), twin.value()));
+        } else {
+            long[] maxValues = parallelComputePeakValues(hi + 1);
+            for (int i = (int) lo; i <= (int) hi; i++) {
+                if (maxValues[i] == maxValues[i + 1]) {
+                    result.add(i, maxValues[i + 1]);
+                }
             }
         }
+        Metrics.stop(Metrics.Operation.MAX_VALUE_TWINS, start);
         return result;
     }
 
+    //Lazy variants of the twin queries that yield every twin with its shared
+    //value as it is found, with memory bounded by a sliding window. A
+    //max-value twin whose peak does not fit into a long throws
+    //ArithmeticException when it is reached.
+    static Stream<Twin> equalLengthTwinsStream(final long lo, final long hi, boolean parallel) {
+        return StreamSupport.stream(TwinSpliterator.equalLengthTwins(lo, hi), parallel);
+    }
+
+    static Stream<Twin> equalMaxValueTwinsStream(final long lo, final long hi, boolean parallel) {
+        return StreamSupport.stream(TwinSpliterator.equalMaxValueTwins(lo, hi), parallel);
+    }
+
     static int[] occurrences(final long n, int counts) {
-        //Check for values lesser than 1 or values that might result in
-        //running out of heap space
-        if (n < 1 || n > 10000000) {
+        //Check for values lesser than 1 or values whose counts might not fit
+        //into an int
+        if (n < 1 || n >= Integer.MAX_VALUE) {
             throw new IllegalArgumentException("Input value out of range!");
         }
         if (counts < 1) {
             throw new IllegalArgumentException("Input value out of range!");
         }
 
-        int[] occurrences = new int[counts + 1];
-        int count = 0;
-
-        for (long i = 1; i <= n; i++) {
-            List<Long> sequence = sequenceOf(i);
-            for (Long item : sequence) {
-                if (item <= counts) {
-                    occurrences[item.intValue()]++;
-                }
-            }
-        }
+        long start = Metrics.start();
+        int[] occurrences = OccurrenceCounter.count(n, counts, ForkJoinPool.commonPool(),
+                BlockFill.DEFAULT_BLOCK_SIZE);
+        Metrics.stop(Metrics.Operation.OCCURRENCES, start);
         return occurrences;
     }
 
+    //Inverse queries answered from the reverse tree in time proportional
+    //to the tree walked rather than to the seeds scanned
+    static long[] seedsWithLength(int length, long bound) {
+        long start = Metrics.start();
+        long[] seeds = new ReverseTree(ForkJoinPool.commonPool()).seedsWithLength(length, bound);
+        Metrics.stop(Metrics.Operation.SEEDS_WITH_LENGTH, start);
+        return seeds;
+    }
+
+    static long[] seedsPassingThrough(long value, int depth, long bound) {
+        long start = Metrics.start();
+        long[] seeds = new ReverseTree(ForkJoinPool.commonPool()).passingThrough(value, depth, bound);
+        Metrics.stop(Metrics.Operation.SEEDS_PASSING_THROUGH, start);
+        return seeds;
+    }
+
+    //Seeds up to hi whose sequence is longer than that of every smaller seed
+    static List<Pair<Long, Integer>> delayRecords(final long hi) {
+        return delayRecords(1, hi, 0);
+    }
+
+    //Resumes a delay record search at lo, given the longest sequence below lo
+    static List<Pair<Long, Integer>> delayRecords(final long lo, final long hi, int previous) {
+        long start = Metrics.start();
+        List<Pair<Long, Integer>> records = new RecordSearch(ForkJoinPool.commonPool(),
+                RecordSearch.DEFAULT_CHUNK_SIZE).delayRecords(lo, hi, previous);
+        Metrics.stop(Metrics.Operation.DELAY_RECORDS, start);
+        return records;
+    }
+
+    //Seeds up to hi whose sequence peaks higher than that of every smaller
+    //seed, with peaks past the range of long type where needed
+    static List<Pair<Long, BigInteger>> pathRecords(final long hi) {
+        return pathRecords(1, hi, BigInteger.ZERO);
+    }
+
+    //Resumes a path record search at lo, given the highest peak below lo
+    static List<Pair<Long, BigInteger>> pathRecords(final long lo, final long hi, BigInteger previous) {
+        long start = Metrics.start();
+        List<Pair<Long, BigInteger>> records = new RecordSearch(ForkJoinPool.commonPool(),
+                RecordSearch.DEFAULT_CHUNK_SIZE).pathRecords(lo, hi, previous);
+        Metrics.stop(Metrics.Operation.PATH_RECORDS, start);
+        return records;
+    }
+
     public static void main(String[] args) {
         System.out.println("Timings:");
         for (int i = 100000; i <= 1000000; i += 100000) {
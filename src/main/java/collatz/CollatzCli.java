@@ -0,0 +1,290 @@
+package collatz;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+//Batch command line tool over the engine:
+//
+//  collatz --op lengths --range 1:100000000 --threads 8 --format bin --out lengths.bin
+//
+//Every operation yields rows of a seed and a value, which are computed in
+//blocks on a pool of the given size while the previous block is written,
+//so the output streams through a buffered FileChannel without ever being
+//held in full. Output goes to stdout unless --out names a file.
+//
+//Records of a range that starts above 1 are those that beat every smaller
+//seed. --previous gives the record value of the seeds below lo, the length
+//for delay records and the peak for path records, as a previous run
+//reported it. Without it the seeds below lo are searched first, which costs
+//as much as a run over the whole prefix.
+//
+//Formats:
+//  csv       a "seed,value" header and one decimal row per line
+//  bin       raw rows of two little-endian int64, seed then value
+//  columnar  row groups, see ColumnarWriter
+class CollatzCli {
+
+    static final int BLOCK_SIZE = 1 << 20;
+    static final int BUFFER_SIZE = 1 << 20;
+
+    enum Op {
+        LENGTHS("lengths", "length"),
+        PEAKS("peaks", "peak"),
+        LENGTH_TWINS("length-twins", "length"),
+        MAX_VALUE_TWINS("max-value-twins", "peak"),
+        DELAY_RECORDS("delay-records", "length"),
+        PATH_RECORDS("path-records", "peak");
+
+        final String option;
+        final String valueName;
+
+        Op(String option, String valueName) {
+            this.option = option;
+            this.valueName = valueName;
+        }
+    }
+
+    enum Format {
+        CSV, BIN, COLUMNAR
+    }
+
+    static final String USAGE = "usage: collatz --op <lengths|peaks|length-twins|max-value-twins|"
+            + "delay-records|path-records> --range <lo>:<hi> [--threads <n>] [--format <csv|bin|columnar>] "
+            + "[--out <file>] [--previous <value>]";
+
+    private final Op op;
+    private final long lo;
+    private final long hi;
+    private final ForkJoinPool pool;
+    //Record value of the seeds below lo, -1 when it needs to be searched
+    private final long previous;
+
+    private CollatzCli(Op op, long lo, long hi, ForkJoinPool pool, long previous) {
+        this.op = op;
+        this.lo = lo;
+        this.hi = hi;
+        this.pool = pool;
+        this.previous = previous;
+    }
+
+    public static void main(String[] args) {
+        FileChannel stdout = new FileOutputStream(FileDescriptor.out).getChannel();
+        int status = run(args, stdout, System.err);
+        if (status != 0) {
+            System.exit(status);
+        }
+    }
+
+    //Runs the tool and returns its exit status, 2 for usage errors
+    static int run(String[] args, FileChannel stdout, PrintStream err) {
+        Op op = null;
+        Format format = Format.CSV;
+        String out = null;
+        long lo = 0;
+        long hi = 0;
+        long previous = -1;
+        int threads = Runtime.getRuntime().availableProcessors();
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + args[i]);
+                }
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--op":
+                        op = parseOp(value);
+                        break;
+                    case "--range":
+                        int split = value.indexOf(':');
+                        if (split < 0) {
+                            throw new IllegalArgumentException("Range needs to be <lo>:<hi>");
+                        }
+                        lo = Long.parseLong(value.substring(0, split));
+                        hi = Long.parseLong(value.substring(split + 1));
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(value);
+                        break;
+                    case "--format":
+                        format = Format.valueOf(value.toUpperCase());
+                        break;
+                    case "--out":
+                        out = value;
+                        break;
+                    case "--previous":
+                        previous = Long.parseLong(value);
+                        if (previous < 0) {
+                            throw new IllegalArgumentException("Previous record needs to be non-negative");
+                        }
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+            if (op == null) {
+                throw new IllegalArgumentException("Missing --op");
+            }
+            if (lo < 1 || lo > hi) {
+                throw new IllegalArgumentException("Range needs 1 <= lo <= hi");
+            }
+            //Twins compare the last seed with the one after it
+            long last = op == Op.LENGTH_TWINS || op == Op.MAX_VALUE_TWINS ? hi + 1 : hi;
+            if (last < hi) {
+                throw new IllegalArgumentException("Twins need hi < " + Long.MAX_VALUE);
+            }
+            //Rows hold the value in an int64, so peaks need to fit into a long
+            if (op.valueName.equals("peak") && last > TrajectoryStats.LONG_PEAK_BOUND) {
+                throw new IllegalArgumentException("Peaks only fit into a row for seeds up to "
+                        + TrajectoryStats.LONG_PEAK_BOUND);
+            }
+            if (op == Op.DELAY_RECORDS && hi > WideTrajectory.STEP_LIMIT) {
+                throw new IllegalArgumentException("Records need hi <= " + WideTrajectory.STEP_LIMIT);
+            }
+            if (previous >= 0 && op != Op.DELAY_RECORDS && op != Op.PATH_RECORDS) {
+                throw new IllegalArgumentException("--previous only applies to record operations");
+            }
+            if (op == Op.DELAY_RECORDS && previous > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Previous length needs to fit into an int");
+            }
+            if (threads < 1) {
+                throw new IllegalArgumentException("Threads need to be positive");
+            }
+        } catch (IllegalArgumentException e) {
+            err.println(e.getMessage());
+            err.println(USAGE);
+            return 2;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            if (out == null) {
+                write(op, lo, hi, pool, previous, format, stdout);
+            } else {
+                try (FileChannel file = FileChannel.open(Paths.get(out), StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    write(op, lo, hi, pool, previous, format, file);
+                }
+            }
+            return 0;
+        } catch (IOException | IllegalArgumentException e) {
+            err.println(e.getMessage());
+            return 1;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    //The writer is flushed but the channel is left open for the caller
+    private static void write(Op op, long lo, long hi, ForkJoinPool pool, long previous, Format format,
+                              FileChannel channel) throws IOException {
+        try (RowWriter writer = RowWriter.of(format, channel, op.valueName)) {
+            new CollatzCli(op, lo, hi, pool, previous).stream(writer);
+        }
+    }
+
+    private static Op parseOp(String value) {
+        for (Op op : Op.values()) {
+            if (op.option.equals(value)) {
+                return op;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation " + value);
+    }
+
+    //Computes the next block while the current one is written
+    private void stream(RowWriter writer) throws IOException {
+        if (op == Op.DELAY_RECORDS || op == Op.PATH_RECORDS) {
+            RecordSearch search = new RecordSearch(pool, RecordSearch.DEFAULT_CHUNK_SIZE);
+            //Records in the range need to beat every seed below lo, which is
+            //the last record of the prefix unless --previous gave it
+            long record = previous;
+            if (record < 0) {
+                record = 0;
+                if (lo > 1) {
+                    TwinResults prefix = op == Op.DELAY_RECORDS ? search.delayRecordRows(1, lo - 1, 0)
+                            : search.pathRecordRows(1, lo - 1, 0);
+                    record = prefix.value(prefix.size() - 1);
+                }
+            }
+            writer.write(op == Op.DELAY_RECORDS ? search.delayRecordRows(lo, hi, (int) record)
+                    : search.pathRecordRows(lo, hi, record));
+            return;
+        }
+        long end = blockEnd(lo);
+        ForkJoinTask<TwinResults> next = pool.submit(() -> block(lo, blockEnd(lo)));
+        while (next != null) {
+            TwinResults current = next.join();
+            long start = end + 1;
+            if (end < hi) {
+                end = blockEnd(start);
+                long nextEnd = end;
+                next = pool.submit(() -> block(start, nextEnd));
+            } else {
+                next = null;
+            }
+            writer.write(current);
+        }
+    }
+
+    private long blockEnd(final long start) {
+        return hi - start < BLOCK_SIZE ? hi : start + BLOCK_SIZE - 1;
+    }
+
+    //The rows of the seeds from start to end
+    private TwinResults block(final long start, final long end) {
+        boolean twins = op == Op.LENGTH_TWINS || op == Op.MAX_VALUE_TWINS;
+        //Twins compare every seed with the next one
+        int size = (int) (end - start + 1) + (twins ? 1 : 0);
+        long[] values = new long[size];
+        int parts = Math.max(1, Math.min(pool.getParallelism() * 4, size / 4096));
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int part = 0; part < parts; part++) {
+            int from = (int) ((long) size * part / parts);
+            int to = (int) ((long) size * (part + 1) / parts);
+            tasks.add(ForkJoinTask.adapt(() -> fillValues(values, start, from, to)));
+        }
+        ForkJoinTask.invokeAll(tasks);
+
+        if (!twins) {
+            TwinResults rows = new TwinResults(size);
+            for (int i = 0; i < size; i++) {
+                rows.add(start + i, values[i]);
+            }
+            return rows;
+        }
+        TwinResults rows = new TwinResults();
+        for (int i = 0; i + 1 < size; i++) {
+            if (values[i] == values[i + 1]) {
+                rows.add(start + i, values[i]);
+            }
+        }
+        return rows;
+    }
+
+    private void fillValues(long[] values, final long start, int from, int to) {
+        if (op == Op.LENGTHS || op == Op.LENGTH_TWINS) {
+            JumpTable jumps = Jumps.TABLE;
+            for (int i = from; i < to; i++) {
+                values[i] = jumps.lengthOf(start + i);
+            }
+        } else {
+            TrajectoryStats stats = new TrajectoryStats();
+            for (int i = from; i < to; i++) {
+                values[i] = stats.walk(start + i).peak();
+            }
+        }
+    }
+
+    private static class Jumps {
+        static final JumpTable TABLE = JumpTable.of(16);
+    }
+}
@@ -0,0 +1,196 @@
+package collatz;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+//Verifies that every seed in a range converges to 1. By strong induction it
+//is enough to show that each seed n > 1 eventually drops below n, provided
+//every seed below the range is already known to converge.
+//
+//Most seeds never need to be walked. Writing n = 2^k * a + r, the first k
+//steps of T(x) = x / 2 or (3x + 1) / 2 turn n into 3^c * a' + d, with c and
+//d depending only on r. When that value is below n for every a >= 1, the
+//residue r is sieved out and only the survivors are walked, step by step
+//and without recursion, until they drop below their seed.
+class ConvergenceVerifier {
+
+    static final int DEFAULT_SIEVE_BITS = 16;
+    static final int MAX_SIEVE_BITS = 20;
+
+    //Seeds are handed out to workers in units of this many seeds
+    static final int UNIT_SIZE = 1 << 22;
+
+    //A seed that has not dropped below itself after this many steps is
+    //reported instead of being walked forever
+    static final int MAX_STEPS = 100000;
+
+    private final int sieveBits;
+    private final long modulus;
+    private final int[] survivors;
+
+    ConvergenceVerifier(int sieveBits) {
+        if (sieveBits < 1 || sieveBits > MAX_SIEVE_BITS) {
+            throw new IllegalArgumentException("Sieve width needs to be between 1 and "
+                    + MAX_SIEVE_BITS + "!");
+        }
+        this.sieveBits = sieveBits;
+        this.modulus = 1L << sieveBits;
+
+        int[] kept = new int[(int) modulus];
+        int count = 0;
+        for (int r = 0; r < modulus; r++) {
+            if (!sieved(r)) {
+                kept[count++] = r;
+            }
+        }
+        this.survivors = new int[count];
+        System.arraycopy(kept, 0, survivors, 0, count);
+    }
+
+    //Number of residues mod 2^k that still have to be walked
+    int survivorCount() {
+        return survivors.length;
+    }
+
+    //Whether every seed 2^k * a + r with a >= 1 provably drops below itself
+    //within k steps. The value after j steps is A * a + B.
+    boolean sieved(long r) {
+        long a = modulus;
+        long b = r;
+        for (int j = 0; j < sieveBits; j++) {
+            if (b % 2 == 0) {
+                a /= 2;
+                b /= 2;
+            } else {
+                a = a * 3 / 2;
+                b = (b * 3 + 1) / 2;
+            }
+            //A * a + B < 2^k * a + r for all a >= 1
+            if (a < modulus && modulus - a > b - r) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //Walks n until it drops below itself
+    static boolean drops(final long n) {
+        if (n == 1) {
+            return true;
+        }
+        long currentN = n;
+        int steps = 0;
+        while (currentN >= n) {
+            if (currentN % 2 == 0) currentN /= 2;
+            else if (currentN > WideTrajectory.STEP_LIMIT) {
+                //The wide walk only returns once it has reached 1
+                WideTrajectory.lengthOf(currentN);
+                return true;
+            } else currentN = currentN * 3 + 1;
+            if (++steps > MAX_STEPS) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //Verifies [lo, hi] on the pool and returns the first seed that could not
+    //be verified, or -1. The checkpoint is called with increasing values v
+    //whenever every seed in [lo, v] has been verified, so an interrupted run
+    //can resume from v + 1.
+    long verify(final long lo, final long hi, ForkJoinPool pool, LongConsumer checkpoint) {
+        //Make sure lo is actually lower than hi
+        if (lo > hi) {
+            throw new IllegalArgumentException("Incorrect input order!");
+        }
+        if (lo < 1 || hi > Long.MAX_VALUE - 2 * (long) UNIT_SIZE) {
+            throw new IllegalArgumentException("Input value out of range!");
+        }
+
+        long units = (hi - lo) / UNIT_SIZE + 1;
+        AtomicLong nextUnit = new AtomicLong();
+        AtomicLong firstFailure = new AtomicLong(Long.MAX_VALUE);
+        Watermark watermark = new Watermark(lo, hi, checkpoint);
+
+        List<ForkJoinTask<?>> workers = new ArrayList<>();
+        for (int i = 0; i < pool.getParallelism(); i++) {
+            workers.add(pool.submit(() -> {
+                long unit;
+                while ((unit = nextUnit.getAndIncrement()) < units) {
+                    long unitLo = lo + unit * UNIT_SIZE;
+                    long unitHi = Math.min(unitLo + UNIT_SIZE - 1, hi);
+                    long failure = verifyRange(unitLo, unitHi);
+                    if (failure != -1) {
+                        firstFailure.accumulateAndGet(failure, Math::min);
+                    } else {
+                        watermark.finished(unit);
+                    }
+                }
+            }));
+        }
+        for (ForkJoinTask<?> worker : workers) {
+            worker.join();
+        }
+        return firstFailure.get() == Long.MAX_VALUE ? -1 : firstFailure.get();
+    }
+
+    //Serially verifies [lo, hi] and returns the first seed that could not be
+    //verified, or -1
+    long verifyRange(final long lo, final long hi) {
+        //Seeds below the modulus are not covered by the sieve
+        long n = lo;
+        for (; n <= hi && n < modulus; n++) {
+            if (!drops(n)) {
+                return n;
+            }
+        }
+        if (n > hi) {
+            return -1;
+        }
+
+        for (long base = n & -modulus; base <= hi; base += modulus) {
+            for (int r : survivors) {
+                long seed = base + r;
+                if (seed < n) continue;
+                if (seed > hi) break;
+                if (!drops(seed)) {
+                    return seed;
+                }
+            }
+        }
+        return -1;
+    }
+
+    //Tracks the contiguous prefix of finished units. Units are claimed in
+    //order, so only about one unit per worker is ever waiting ahead of it.
+    private static class Watermark {
+        private final long lo;
+        private final long hi;
+        private final LongConsumer checkpoint;
+        private final Set<Long> finishedAhead = new HashSet<>();
+        private long next;
+
+        Watermark(long lo, long hi, LongConsumer checkpoint) {
+            this.lo = lo;
+            this.hi = hi;
+            this.checkpoint = checkpoint;
+        }
+
+        synchronized void finished(long unit) {
+            if (unit != next) {
+                finishedAhead.add(unit);
+                return;
+            }
+            do {
+                next++;
+            } while (finishedAhead.remove(next));
+            checkpoint.accept(Math.min(lo + next * UNIT_SIZE - 1, hi));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package collatz;
+
+import java.util.Arrays;
+
+//Memoized length table that can be extended instead of recomputed. The
+//entries live in int[] chunks that are never moved, so extending to a
+//larger bound only fills the new suffix, using the filled prefix as the
+//memo.
+//
+//Readers never lock. extendTo fills the new entries first and then
+//publishes the new bound through a volatile write, so a reader that sees
+//a bound also sees every entry up to it.
+class GrowableLengthTable implements LengthTable {
+
+    static final int CHUNK_SHIFT = 20;
+    static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private volatile int[][] chunks = new int[0][];
+    private volatile long bound;
+
+    GrowableLengthTable() {
+    }
+
+    //Entries up to bound are filled and safe to read from any thread
+    @Override
+    public long bound() {
+        return bound;
+    }
+
+    @Override
+    public int get(long n) {
+        return chunks[(int) (n >>> CHUNK_SHIFT)][(int) n & CHUNK_MASK];
+    }
+
+    //Only meant for the fill of an extension, past the published bound
+    @Override
+    public void set(long n, int length) {
+        if (n <= bound) {
+            throw new IllegalArgumentException("Published entries are immutable!");
+        }
+        chunks[(int) (n >>> CHUNK_SHIFT)][(int) n & CHUNK_MASK] = length;
+    }
+
+    //Fills the entries up to n, if not filled already
+    synchronized void extendTo(final long n) {
+        long from = bound + 1;
+        if (n < from) {
+            return;
+        }
+        if (n >>> CHUNK_SHIFT >= Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Input value out of range!");
+        }
+        int needed = (int) (n >>> CHUNK_SHIFT) + 1;
+        if (needed > chunks.length) {
+            int[][] grown = Arrays.copyOf(chunks, needed);
+            for (int i = chunks.length; i < needed; i++) {
+                grown[i] = new int[CHUNK_SIZE];
+            }
+            chunks = grown;
+        }
+
+        long start = Metrics.start();
+        int[][] table = chunks;
+        long currentN;
+        int count;
+        long steps = 0;
+        long memoHits = 0;
+        for (long i = Math.max(from, 1); i <= n; i++) {
+            currentN = i;
+            count = 0;
+            do {
+                if (currentN < i) {
+                    count += table[(int) (currentN >>> CHUNK_SHIFT)][(int) currentN & CHUNK_MASK];
+                    memoHits++;
+                    break;
+                }
+                count++;
+                steps++;
+                if (currentN == 1) break;
+                else if (currentN % 2 == 0) currentN /= 2;
+                else if (currentN > WideTrajectory.STEP_LIMIT) {
+                    //Finish the trajectory beyond the range of long type
+                    count += WideTrajectory.lengthOf(currentN) - 1;
+                    break;
+                } else currentN = currentN * 3 + 1;
+            } while (true);
+            table[(int) (i >>> CHUNK_SHIFT)][(int) i & CHUNK_MASK] = count;
+        }
+        Metrics.kernel(n - from + 1, steps, memoHits);
+        Metrics.table(4L * needed * CHUNK_SIZE);
+        Metrics.stop(Metrics.Operation.EXTEND_LENGTH_TABLE, start);
+        bound = n;
+    }
+}
@@ -0,0 +1,107 @@
+package collatz;
+
+//Advances trajectories k steps of T(x) = x / 2 or (3x + 1) / 2 at a time.
+//Writing n = 2^k * a + r, the parity of the first k values only depends on
+//r, so T^k(n) = 3^c * a + d, where c is the number of odd steps and d is
+//T^k(r). Each of the 2^k residues gets its multiplier 3^c, its addend d and
+//its length in ordinary Collatz steps, k + c.
+//
+//A jump from n >= 2^k never passes 1 on the way, so it is only used there.
+//Lengths of the values below 2^k come from a small memo table instead.
+class JumpTable {
+
+    static final int MIN_BITS = 1;
+    static final int MAX_BITS = 24;
+
+    private final int bits;
+    private final long mask;
+    private final long[] multipliers;
+    private final long[] addends;
+    private final int[] steps;
+    private final int[] tail;
+
+    private JumpTable(int bits) {
+        int size = 1 << bits;
+        this.bits = bits;
+        this.mask = size - 1;
+        this.multipliers = new long[size];
+        this.addends = new long[size];
+        this.steps = new int[size];
+        this.tail = Collatz.memoizedComputeSequenceLengths(size - 1);
+
+        for (int r = 0; r < size; r++) {
+            long x = r;
+            int odd = 0;
+            long multiplier = 1;
+            for (int j = 0; j < bits; j++) {
+                if (x % 2 == 0) {
+                    x /= 2;
+                } else {
+                    x = (x * 3 + 1) / 2;
+                    multiplier *= 3;
+                    odd++;
+                }
+            }
+            multipliers[r] = multiplier;
+            addends[r] = x;
+            steps[r] = bits + odd;
+        }
+    }
+
+    static JumpTable of(int bits) {
+        if (bits < MIN_BITS || bits > MAX_BITS) {
+            throw new IllegalArgumentException("Jump width needs to be between "
+                    + MIN_BITS + " and " + MAX_BITS + "!");
+        }
+        return new JumpTable(bits);
+    }
+
+    int bits() {
+        return bits;
+    }
+
+    int lengthOf(final long n) {
+        if (n < 1) {
+            throw new IllegalArgumentException("Input value out of range!");
+        }
+
+        long currentN = n;
+        int count = 0;
+        while (currentN > mask) {
+            int r = (int) (currentN & mask);
+            long a = currentN >>> bits;
+            //Finish the trajectory with the wide engine if the jump would
+            //push the value out of the range of long type.
+            if (a > (Long.MAX_VALUE - addends[r]) / multipliers[r]) {
+                return count + WideTrajectory.lengthOf(currentN);
+            }
+            currentN = multipliers[r] * a + addends[r];
+            count += steps[r];
+        }
+        return count + tail[(int) currentN];
+    }
+
+    //Same table as Collatz.memoizedComputeSequenceLengths, jumping until the
+    //trajectory of i drops below i.
+    int[] computeSequenceLengths(final long n) {
+        int[] sequenceLengths = new int[((int) n) + 1];
+        long currentN;
+        int count;
+        int r;
+        for (int i = 1; i <= (int) n; i++) {
+            if (i <= mask) {
+                sequenceLengths[i] = tail[i];
+                continue;
+            }
+            currentN = i;
+            count = 0;
+            do {
+                r = (int) (currentN & mask);
+                currentN = multipliers[r] * (currentN >>> bits) + addends[r];
+                count += steps[r];
+            } while (currentN >= i);
+            sequenceLengths[i] = count + sequenceLengths[(int) currentN];
+        }
+        return sequenceLengths;
+    }
+}
@@ -0,0 +1,299 @@
+package collatz;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+//A file of sequence lengths that outlives the JVM. The file starts with a
+//header holding a magic number, a format version, the bound the table has
+//been filled up to and a CRC32 of the table bytes. The table itself is
+//memory-mapped, so a warm start only pages the file in.
+//
+//Any number of JVMs may use the same file: readers take a shared lock on
+//it and growing the table takes an exclusive one. Within one JVM a file
+//should only be opened by a single LengthCache.
+//
+//Besides ensure, which fills everything up to n in one go, the table can be
+//grown by disjoint ranges filled concurrently: reserve maps the entries,
+//fillRange fills a range without reading any untrusted entry, and
+//markFilled advances the bound once the ranges above it leave no gap.
+class LengthCache implements Closeable {
+
+    static final long MAGIC = 0x434f4c4c41545a4cL;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+
+    private final FileChannel channel;
+    private LengthTable table;
+    private long bound;
+    //CRC32 of the table bytes up to bound
+    private long checksum;
+    //Mapping for fillRange, which may reach past bound
+    private OffHeapLengthTable reserved;
+    //Ranges filled above bound, first entry to last
+    private final TreeMap<Long, Long> filledRanges = new TreeMap<>();
+
+    private LengthCache(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    static LengthCache open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        LengthCache cache = new LengthCache(channel);
+        try {
+            FileLock lock = channel.lock(0, Long.MAX_VALUE, true);
+            try {
+                cache.load(true);
+            } finally {
+                lock.release();
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return cache;
+    }
+
+    synchronized long bound() {
+        return bound;
+    }
+
+    //Returns a table that holds at least every seed up to n, growing the
+    //file if neither this nor any other process has filled that far yet.
+    synchronized LengthTable ensure(final long n) throws IOException {
+        if (n < 1) {
+            throw new IllegalArgumentException("Input value out of range!");
+        }
+        if (n <= bound) {
+            return table;
+        }
+        FileLock lock = channel.lock();
+        try {
+            //Another process may have grown the file in the meantime. Only
+            //verify it when there is no trusted table yet.
+            load(table == null);
+            if (n <= bound) {
+                return table;
+            }
+            OffHeapLengthTable grown = OffHeapLengthTable.map(channel, HEADER_SIZE, n,
+                    FileChannel.MapMode.READ_WRITE);
+            LengthTables.fill(grown, bound + 1);
+            //FileChannel.force does not cover writes through a mapping, so
+            //the entries are forced through the mapping before the header
+            grown.force(bound + 1, n);
+            commit(grown);
+            return table;
+        } finally {
+            lock.release();
+        }
+    }
+
+    //Maps the entries up to n for fillRange, growing the file but not the
+    //bound
+    synchronized void reserve(final long n) throws IOException {
+        if (n < 1) {
+            throw new IllegalArgumentException("Input value out of range!");
+        }
+        if (reserved != null && reserved.bound() >= n) {
+            return;
+        }
+        FileLock lock = channel.lock();
+        try {
+            load(table == null);
+            if (channel.size() < HEADER_SIZE) {
+                writeHeader(0, 0);
+            }
+            reserved = OffHeapLengthTable.map(channel, HEADER_SIZE, Math.max(n, bound),
+                    FileChannel.MapMode.READ_WRITE);
+        } finally {
+            lock.release();
+        }
+    }
+
+    //Fills the reserved entries from..to and writes them through to the
+    //file. Only the entries up to bound and those of the range itself are
+    //read, so any number of disjoint ranges may be filled at once.
+    void fillRange(final long from, final long to) {
+        OffHeapLengthTable target;
+        long trusted;
+        synchronized (this) {
+            target = reserved;
+            trusted = bound;
+        }
+        if (from < 1 || from > to || target == null || to > target.bound()) {
+            throw new IllegalArgumentException("Input value out of range!");
+        }
+        LengthTables.fill(target, from, to, trusted);
+        target.force(from, to);
+    }
+
+    //Records that the entries from..to are filled and moves the bound over
+    //every range that now follows it without a gap
+    synchronized void markFilled(final long from, final long to) throws IOException {
+        if (to <= bound) {
+            return;
+        }
+        filledRanges.merge(from, to, Math::max);
+        long filled = bound;
+        while (!filledRanges.isEmpty() && filledRanges.firstKey() <= filled + 1) {
+            filled = Math.max(filled, filledRanges.pollFirstEntry().getValue());
+        }
+        if (filled == bound) {
+            return;
+        }
+        FileLock lock = channel.lock();
+        try {
+            load(table == null);
+            if (filled > bound) {
+                commit(OffHeapLengthTable.map(channel, HEADER_SIZE, filled, FileChannel.MapMode.READ_WRITE));
+            }
+        } finally {
+            lock.release();
+        }
+    }
+
+    //Publishes a table whose entries past bound have been filled and forced
+    //to the file. Only the appended entries are read, their checksum is
+    //combined with the one of the trusted prefix.
+    private void commit(OffHeapLengthTable grown) throws IOException {
+        long n = grown.bound();
+        CRC32 appended = new CRC32();
+        long grownChecksum;
+        if (table == null) {
+            grown.updateChecksum(appended, 0);
+            grownChecksum = appended.getValue();
+        } else {
+            grown.updateChecksum(appended, bound + 1);
+            grownChecksum = combine(checksum, appended.getValue(),
+                    OffHeapLengthTable.bytesFor(n) - OffHeapLengthTable.bytesFor(bound));
+        }
+        writeHeader(n, grownChecksum);
+        channel.force(false);
+
+        table = grown;
+        bound = n;
+        checksum = grownChecksum;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private void load(boolean verify) throws IOException {
+        if (channel.size() < HEADER_SIZE) {
+            bound = 0;
+            table = null;
+            checksum = 0;
+            return;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        channel.read(header, 0);
+        header.flip();
+        if (header.getLong() != MAGIC) {
+            throw new IOException("Not a sequence length cache file!");
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported cache file version " + version + "!");
+        }
+        header.getInt();
+        long headerBound = header.getLong();
+        long headerChecksum = header.getLong();
+        if (headerBound < 1 || headerBound == bound) {
+            return;
+        }
+
+        OffHeapLengthTable mapped = OffHeapLengthTable.map(channel, HEADER_SIZE, headerBound,
+                FileChannel.MapMode.READ_WRITE);
+        if (verify) {
+            CRC32 checksum = new CRC32();
+            mapped.updateChecksum(checksum, 0);
+            if (checksum.getValue() != headerChecksum) {
+                //Treat a damaged file as empty, the next ensure rebuilds it
+                bound = 0;
+                table = null;
+                this.checksum = 0;
+                return;
+            }
+        }
+        bound = headerBound;
+        table = mapped;
+        checksum = headerChecksum;
+    }
+
+    //CRC32 of two blocks of bytes from the CRC32 of each and the length of
+    //the second, as crc32_combine in zlib: the first CRC is advanced over
+    //length zero bytes by squaring the operator of a single zero bit.
+    static long combine(long first, long second, long length) {
+        if (length <= 0) {
+            return first;
+        }
+        long[] even = new long[32];
+        long[] odd = new long[32];
+        //Operator for one zero bit
+        odd[0] = 0xedb88320L;
+        long row = 1;
+        for (int i = 1; i < 32; i++) {
+            odd[i] = row;
+            row <<= 1;
+        }
+        //Operators for two and four zero bits
+        square(even, odd);
+        square(odd, even);
+
+        long crc = first;
+        do {
+            //Applies the operator for the next power of two bytes
+            square(even, odd);
+            if ((length & 1) != 0) {
+                crc = times(even, crc);
+            }
+            length >>>= 1;
+            if (length == 0) {
+                break;
+            }
+            square(odd, even);
+            if ((length & 1) != 0) {
+                crc = times(odd, crc);
+            }
+            length >>>= 1;
+        } while (length != 0);
+        return crc ^ second;
+    }
+
+    private static long times(long[] matrix, long vector) {
+        long sum = 0;
+        for (int i = 0; vector != 0; i++, vector >>>= 1) {
+            if ((vector & 1) != 0) {
+                sum ^= matrix[i];
+            }
+        }
+        return sum;
+    }
+
+    private static void square(long[] square, long[] matrix) {
+        for (int i = 0; i < 32; i++) {
+            square[i] = times(matrix, matrix[i]);
+        }
+    }
+
+    private void writeHeader(long bound, long checksum) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putLong(MAGIC);
+        header.putInt(VERSION);
+        header.putInt(0);
+        header.putLong(bound);
+        header.putLong(checksum);
+        header.clear();
+        channel.write(header, 0);
+    }
+}
@@ -0,0 +1,13 @@
+package collatz;
+
+//A table of sequence lengths indexed by seed, for tables that may not fit
+//into a single int[]. Index 0 is unused.
+interface LengthTable {
+
+    //Largest seed the table holds
+    long bound();
+
+    int get(long n);
+
+    void set(long n, int length);
+}
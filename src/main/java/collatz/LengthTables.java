@@ -0,0 +1,80 @@
+package collatz;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+
+//Allocation and filling of LengthTables
+class LengthTables {
+
+    //Tables up to this many bytes live in direct buffers, larger ones are
+    //backed by a temporary memory-mapped file.
+    static final long DIRECT_LIMIT = 1L << 30;
+
+    static final long STEP_LIMIT = WideTrajectory.STEP_LIMIT;
+
+    private LengthTables() {
+    }
+
+    static long maxBound() {
+        long disk = new File(System.getProperty("java.io.tmpdir")).getUsableSpace();
+        return Math.max(DIRECT_LIMIT, disk) / 2 - 1;
+    }
+
+    static LengthTable allocate(final long bound) {
+        if (bound < 1 || bound > maxBound()) {
+            throw new IllegalArgumentException("Input value out of range!");
+        }
+        if (OffHeapLengthTable.bytesFor(bound) <= DIRECT_LIMIT) {
+            return OffHeapLengthTable.allocateDirect(bound);
+        }
+        try {
+            File file = File.createTempFile("collatz-lengths", ".bin");
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                return OffHeapLengthTable.map(raf.getChannel(), 0, bound, FileChannel.MapMode.READ_WRITE);
+            } finally {
+                //The mapping keeps the data alive, the name is not needed
+                if (!file.delete()) {
+                    file.deleteOnExit();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    //Memoized fill of the entries from..bound, assuming every entry below
+    //from is already filled in.
+    static void fill(LengthTable table, final long from) {
+        fill(table, from, table.bound(), from - 1);
+    }
+
+    //Memoized fill of the entries from..to that only reads the entries up to
+    //trusted and those of the range itself, so disjoint ranges above trusted
+    //can be filled at the same time.
+    static void fill(LengthTable table, final long from, final long to, final long trusted) {
+        long currentN;
+        int count;
+        for (long i = Math.max(from, 1); i <= to; i++) {
+            currentN = i;
+            count = 0;
+            do {
+                if (currentN < i && (currentN >= from || currentN <= trusted)) {
+                    count += table.get(currentN);
+                    break;
+                }
+                count++;
+                if (currentN == 1) break;
+                else if (currentN % 2 == 0) currentN /= 2;
+                else if (currentN > STEP_LIMIT) {
+                    //Finish the trajectory beyond the range of long type
+                    count += WideTrajectory.lengthOf(currentN) - 1;
+                    break;
+                } else currentN = currentN * 3 + 1;
+            } while (true);
+            table.set(i, count);
+        }
+    }
+}
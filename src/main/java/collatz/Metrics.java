@@ -0,0 +1,249 @@
+package collatz;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+//Process wide counters and latency histograms of the engine.
+//
+//Everything is off by default. Instrumented code reads the volatile switch
+//once per call or per table block and keeps its tallies in locals, so a
+//disabled engine pays a single branch, and an enabled one adds to striped
+//LongAdders instead of contending on shared cells.
+final class Metrics {
+
+    static final String OBJECT_NAME = "collatz:type=Metrics";
+
+    //Returned by start when disabled, so stop does not record
+    private static final long DISABLED = Long.MIN_VALUE;
+
+    //The public computations of Collatz
+    enum Operation {
+        COLLATZ("collatz"),
+        ALL_CONVERGE("allConverge"),
+        SIMPLE_LENGTHS("simpleComputeSequenceLengths"),
+        MEMOIZED_LENGTHS("memoizedComputeSequenceLengths"),
+        VECTOR_LENGTHS("vectorComputeSequenceLengths"),
+        LENGTH_TABLE("memoizedComputeSequenceLengthTable"),
+        PACKED_LENGTH_TABLE("packedComputeSequenceLengthTable"),
+        REDUCED_LENGTHS("reducedComputeSequenceLengths"),
+        REDUCED_LENGTH_TABLE("reducedComputeSequenceLengthTable"),
+        EXTEND_LENGTH_TABLE("growableLengthTable.extendTo"),
+        PARALLEL_LENGTHS("parallelComputeSequenceLengths"),
+        MEMOIZED_PEAKS("memoizedComputePeakValues"),
+        PARALLEL_PEAKS("parallelComputePeakValues"),
+        SEQUENCE_OF("sequenceOf"),
+        TRAJECTORY_STATS("trajectoryStats"),
+        LENGTH_OF_SEQUENCE("lengthOfSequence"),
+        LARGEST_VALUE("largestValueInSequence"),
+        LENGTH_TWINS("lengthTwins"),
+        MAX_VALUE_TWINS("maxValueTwins"),
+        OCCURRENCES("occurrences"),
+        SEEDS_WITH_LENGTH("seedsWithLength"),
+        SEEDS_PASSING_THROUGH("seedsPassingThrough"),
+        DELAY_RECORDS("delayRecords"),
+        PATH_RECORDS("pathRecords"),
+        RANGE_UNIT("rangeJob.unit");
+
+        final String metricName;
+        final LatencyHistogram latency = new LatencyHistogram();
+
+        Operation(String metricName) {
+            this.metricName = metricName;
+        }
+    }
+
+    private static volatile boolean enabled;
+    private static volatile long resetNanos = System.nanoTime();
+
+    //Collatz steps walked by the kernels
+    private static final LongAdder steps = new LongAdder();
+    //Seeds whose length or peak was computed
+    private static final LongAdder seeds = new LongAdder();
+    //Seeds finished by a lookup into a memo table
+    private static final LongAdder memoHits = new LongAdder();
+    private static final LongAdder rangeUnits = new LongAdder();
+    private static final LongAccumulator peakTableBytes = new LongAccumulator(Math::max, 0);
+
+    private Metrics() {
+    }
+
+    static boolean enabled() {
+        return enabled;
+    }
+
+    static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    static long start() {
+        return enabled ? System.nanoTime() : DISABLED;
+    }
+
+    static void stop(Operation operation, long start) {
+        if (start != DISABLED) {
+            operation.latency.record(Math.max(0, System.nanoTime() - start));
+        }
+    }
+
+    //Tallies of a kernel run or one block of it
+    static void kernel(long seedCount, long stepCount, long memoHitCount) {
+        if (enabled) {
+            seeds.add(seedCount);
+            steps.add(stepCount);
+            memoHits.add(memoHitCount);
+        }
+    }
+
+    static void table(long bytes) {
+        if (enabled) {
+            peakTableBytes.accumulate(bytes);
+        }
+    }
+
+    static void rangeUnit(long start) {
+        if (start != DISABLED) {
+            rangeUnits.increment();
+            stop(Operation.RANGE_UNIT, start);
+        }
+    }
+
+    static long steps() {
+        return steps.sum();
+    }
+
+    static long seeds() {
+        return seeds.sum();
+    }
+
+    static long memoHits() {
+        return memoHits.sum();
+    }
+
+    static double memoHitRatio() {
+        long seedCount = seeds();
+        return seedCount == 0 ? 0 : (double) memoHits() / seedCount;
+    }
+
+    //Steps since the last reset, per second of wall clock time
+    static double stepsPerSecond() {
+        double seconds = (System.nanoTime() - resetNanos) / 1e9;
+        return seconds <= 0 ? 0 : steps() / seconds;
+    }
+
+    static long rangeUnits() {
+        return rangeUnits.sum();
+    }
+
+    static long peakTableBytes() {
+        return peakTableBytes.get();
+    }
+
+    static void reset() {
+        steps.reset();
+        seeds.reset();
+        memoHits.reset();
+        rangeUnits.reset();
+        peakTableBytes.reset();
+        for (Operation operation : Operation.values()) {
+            operation.latency.reset();
+        }
+        resetNanos = System.nanoTime();
+    }
+
+    static void exportTo(MetricsExporter exporter) {
+        exporter.counter("collatz.steps", steps());
+        exporter.counter("collatz.seeds", seeds());
+        exporter.counter("collatz.memoHits", memoHits());
+        exporter.counter("collatz.rangeUnits", rangeUnits());
+        exporter.counter("collatz.peakTableBytes", peakTableBytes());
+        for (Operation operation : Operation.values()) {
+            exporter.histogram("collatz." + operation.metricName, operation.latency);
+        }
+    }
+
+    //Registers the MXBean with the platform server, once per process
+    static void registerMBean() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.registerMBean(new Bean(), new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            //Already registered, possibly by another class loader
+        } catch (JMException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class Bean implements MetricsMXBean {
+
+        @Override
+        public boolean isEnabled() {
+            return enabled();
+        }
+
+        @Override
+        public void setEnabled(boolean enabled) {
+            Metrics.setEnabled(enabled);
+        }
+
+        @Override
+        public long getSteps() {
+            return steps();
+        }
+
+        @Override
+        public double getStepsPerSecond() {
+            return stepsPerSecond();
+        }
+
+        @Override
+        public long getSeeds() {
+            return seeds();
+        }
+
+        @Override
+        public double getMemoHitRatio() {
+            return memoHitRatio();
+        }
+
+        @Override
+        public long getRangeUnits() {
+            return rangeUnits();
+        }
+
+        @Override
+        public long getPeakTableBytes() {
+            return peakTableBytes();
+        }
+
+        @Override
+        public Map<String, Long> getCalls() {
+            Map<String, Long> calls = new LinkedHashMap<>();
+            for (Operation operation : Operation.values()) {
+                calls.put(operation.metricName, operation.latency.count());
+            }
+            return calls;
+        }
+
+        @Override
+        public long latencyNanos(String operation, double quantile) {
+            for (Operation candidate : Operation.values()) {
+                if (candidate.metricName.equals(operation)) {
+                    return candidate.latency.valueAtQuantile(quantile);
+                }
+            }
+            throw new IllegalArgumentException("Unknown operation " + operation + "!");
+        }
+
+        @Override
+        public void reset() {
+            Metrics.reset();
+        }
+    }
+}
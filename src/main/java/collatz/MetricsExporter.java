@@ -0,0 +1,11 @@
+package collatz;
+
+//Receives the current metrics on Metrics.exportTo, one call per counter and
+//one per operation histogram, so a monitoring backend can be plugged in
+//without the engine depending on it.
+interface MetricsExporter {
+
+    void counter(String name, long value);
+
+    void histogram(String name, LatencyHistogram latencyNanos);
+}
@@ -0,0 +1,30 @@
+package collatz;
+
+import java.util.Map;
+
+//Management view of Metrics, registered as collatz:type=Metrics
+public interface MetricsMXBean {
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    long getSteps();
+
+    double getStepsPerSecond();
+
+    long getSeeds();
+
+    double getMemoHitRatio();
+
+    long getRangeUnits();
+
+    long getPeakTableBytes();
+
+    //Calls per operation
+    Map<String, Long> getCalls();
+
+    long latencyNanos(String operation, double quantile);
+
+    void reset();
+}
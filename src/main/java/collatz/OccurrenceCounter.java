@@ -0,0 +1,160 @@
+package collatz;
+
+import java.math.BigInteger;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntUnaryOperator;
+
+//Counts how many sequences of the seeds 1..n pass through each value up to
+//counts, without walking every trajectory to its end.
+//
+//Once a trajectory reaches a value e <= counts it continues exactly like the
+//sequence of e, so every seed is reduced to its entry value e, the first value
+//<= counts on its trajectory. Entries are memoized for seeds up to MEMO_LIMIT
+//and counted in per-thread stripes. The values up to counts then form a tree
+//in which each value's parent is the next value <= counts after it, and the
+//occurrences of v are the entry counts summed over the subtree of v.
+class OccurrenceCounter extends BlockFill {
+
+    static final int MEMO_LIMIT = Collatz.TABLE_LIMIT;
+
+    private final int counts;
+    private final int memoBound;
+    private final int[] entries;
+    private final Queue<long[]> stripes = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<long[]> stripe;
+
+    private OccurrenceCounter(final long n, int counts, int blockSize) {
+        super(n, blockSize);
+        this.counts = counts;
+        this.memoBound = Math.min(this.n, MEMO_LIMIT);
+        this.entries = new int[memoBound + 1];
+        this.stripe = ThreadLocal.withInitial(() -> {
+            long[] entryCounts = new long[counts + 1];
+            stripes.add(entryCounts);
+            return entryCounts;
+        });
+    }
+
+    static int[] count(final long n, int counts, ForkJoinPool pool, int blockSize) {
+        if (counts < 1) {
+            throw new IllegalArgumentException("Input value out of range!");
+        }
+        OccurrenceCounter engine = new OccurrenceCounter(n, counts, blockSize);
+        engine.run(pool);
+        return engine.accumulate();
+    }
+
+    @Override
+    void fill(int start, int end) {
+        long[] entryCounts = stripe.get();
+        long currentN;
+        int entry;
+        for (int i = Math.max(start, 1); i <= end; i++) {
+            currentN = i;
+            do {
+                if (currentN <= counts) {
+                    entry = (int) currentN;
+                    break;
+                }
+                if (currentN < i && currentN <= memoBound && available(currentN, start)) {
+                    entry = entries[(int) currentN];
+                    break;
+                }
+                if (currentN % 2 == 0) currentN /= 2;
+                else currentN = currentN * 3 + 1;
+            } while (true);
+            if (i <= memoBound) {
+                entries[i] = entry;
+            }
+            entryCounts[entry]++;
+        }
+    }
+
+    private int[] accumulate() {
+        long[] totals = new long[counts + 1];
+        for (long[] entryCounts : stripes) {
+            for (int v = 1; v <= counts; v++) {
+                totals[v] += entryCounts[v];
+            }
+        }
+
+        accumulateEntries(totals, counts, this::parent);
+        int[] occurrences = new int[counts + 1];
+        for (int v = 1; v <= counts; v++) {
+            occurrences[v] = (int) totals[v];
+        }
+        return occurrences;
+    }
+
+    //Turns the entry counts of the values up to counts into occurrences in
+    //place, given the parent of every value above 1
+    static void accumulateEntries(long[] totals, int counts, IntUnaryOperator parent) {
+        //The parent of a value is the first value up to counts that its walk
+        //reaches, so the parent's sequence is strictly shorter and visiting
+        //the values by descending length handles children before parents
+        int[] lengths = Collatz.memoizedComputeSequenceLengths(counts);
+        int maxLength = 0;
+        for (int v = 1; v <= counts; v++) {
+            maxLength = Math.max(maxLength, lengths[v]);
+        }
+        int[] bucketStart = new int[maxLength + 2];
+        for (int v = 1; v <= counts; v++) {
+            bucketStart[maxLength - lengths[v] + 1]++;
+        }
+        for (int i = 1; i <= maxLength + 1; i++) {
+            bucketStart[i] += bucketStart[i - 1];
+        }
+        int[] order = new int[counts];
+        for (int v = 1; v <= counts; v++) {
+            order[bucketStart[maxLength - lengths[v]]++] = v;
+        }
+
+        for (int v : order) {
+            if (v > 1) {
+                totals[parent.applyAsInt(v)] += totals[v];
+            }
+        }
+    }
+
+    //Counts the entry values of the seeds lo..hi without a memo
+    static void countEntries(final long lo, final long hi, int counts, long[] entryCounts) {
+        for (long i = lo; i <= hi; i++) {
+            entryCounts[(int) entryOf(i, counts)]++;
+        }
+    }
+
+    static int walkedParent(int v, int counts) {
+        return (int) entryOf(v % 2 == 0 ? v / 2 : v * 3L + 1, counts);
+    }
+
+    private static long entryOf(final long n, int counts) {
+        long currentN = n;
+        while (currentN > counts) {
+            if (currentN % 2 == 0) currentN /= 2;
+            else if (currentN > WideTrajectory.STEP_LIMIT) {
+                //Step past the range of long type until the value fits again
+                BigInteger wideN = BigInteger.valueOf(currentN);
+                do {
+                    wideN = wideN.testBit(0) ? wideN.multiply(BigInteger.valueOf(3)).add(BigInteger.ONE)
+                            : wideN.shiftRight(1);
+                } while (wideN.bitLength() > 63);
+                currentN = wideN.longValue();
+            } else currentN = currentN * 3 + 1;
+        }
+        return currentN;
+    }
+
+    private int parent(int v) {
+        long currentN = v % 2 == 0 ? v / 2 : v * 3L + 1;
+        while (currentN > counts) {
+            if (currentN <= memoBound) {
+                return entries[(int) currentN];
+            }
+            if (currentN % 2 == 0) currentN /= 2;
+            else currentN = currentN * 3 + 1;
+        }
+        return (int) currentN;
+    }
+}
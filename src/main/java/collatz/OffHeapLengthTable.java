@@ -0,0 +1,107 @@
+package collatz;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+//Length table stored as unsigned 16 bit entries in off-heap segments. Every
+//segment is either a direct buffer or a memory-mapped region of a file, so
+//the table is neither limited to 2^31 entries nor to the size of the heap.
+class OffHeapLengthTable implements LengthTable {
+
+    static final int MAX_LENGTH = 0xFFFF;
+    static final int SEGMENT_SHIFT = 29;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    private final ByteBuffer[] segments;
+    private final long bound;
+
+    private OffHeapLengthTable(ByteBuffer[] segments, long bound) {
+        this.segments = segments;
+        this.bound = bound;
+    }
+
+    static OffHeapLengthTable allocateDirect(final long bound) {
+        ByteBuffer[] segments = new ByteBuffer[segmentCount(bound)];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = ByteBuffer.allocateDirect(segmentBytes(bound, i))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return new OffHeapLengthTable(segments, bound);
+    }
+
+    //Maps the table onto the channel's file starting at offset, growing the
+    //file if it is too short. The mapping stays valid after the channel is
+    //closed.
+    static OffHeapLengthTable map(FileChannel channel, long offset, final long bound,
+                                  FileChannel.MapMode mode) throws IOException {
+        ByteBuffer[] segments = new ByteBuffer[segmentCount(bound)];
+        long position = offset;
+        for (int i = 0; i < segments.length; i++) {
+            int size = segmentBytes(bound, i);
+            segments[i] = channel.map(mode, position, size).order(ByteOrder.LITTLE_ENDIAN);
+            position += size;
+        }
+        return new OffHeapLengthTable(segments, bound);
+    }
+
+    static long bytesFor(final long bound) {
+        return (bound + 1) * 2;
+    }
+
+    private static int segmentCount(final long bound) {
+        if (bound < 1) {
+            throw new IllegalArgumentException("Input value out of range!");
+        }
+        return (int) (bound >>> SEGMENT_SHIFT) + 1;
+    }
+
+    private static int segmentBytes(final long bound, int segment) {
+        long entries = Math.min(bound + 1 - ((long) segment << SEGMENT_SHIFT), 1L << SEGMENT_SHIFT);
+        return (int) entries * 2;
+    }
+
+    //Feeds the raw table bytes of the entries from..bound into the checksum
+    void updateChecksum(CRC32 checksum, final long from) {
+        for (int i = (int) (from >>> SEGMENT_SHIFT); i < segments.length; i++) {
+            ByteBuffer segment = segments[i].duplicate();
+            if (i == (int) (from >>> SEGMENT_SHIFT)) {
+                segment.position((int) (from & SEGMENT_MASK) << 1);
+            }
+            checksum.update(segment);
+        }
+    }
+
+    //Writes the entries from..to of a mapped table through to the file
+    void force(final long from, final long to) {
+        for (int i = (int) (from >>> SEGMENT_SHIFT); i <= (int) (to >>> SEGMENT_SHIFT); i++) {
+            if (segments[i] instanceof MappedByteBuffer) {
+                int start = i == (int) (from >>> SEGMENT_SHIFT) ? (int) (from & SEGMENT_MASK) << 1 : 0;
+                int end = i == (int) (to >>> SEGMENT_SHIFT) ? ((int) (to & SEGMENT_MASK) + 1) << 1
+                        : segments[i].capacity();
+                ((MappedByteBuffer) segments[i]).force(start, end - start);
+            }
+        }
+    }
+
+    @Override
+    public long bound() {
+        return bound;
+    }
+
+    @Override
+    public int get(long n) {
+        return segments[(int) (n >>> SEGMENT_SHIFT)].getChar((int) (n & SEGMENT_MASK) << 1);
+    }
+
+    @Override
+    public void set(long n, int length) {
+        if (length > MAX_LENGTH) {
+            throw new IllegalArgumentException("Sequence length " + length + " does not fit the table!");
+        }
+        segments[(int) (n >>> SEGMENT_SHIFT)].putChar((int) (n & SEGMENT_MASK) << 1, (char) length);
+    }
+}
@@ -0,0 +1,90 @@
+package collatz;
+
+//Length table stored as fixed-width bit fields packed into a long[]. The
+//width is the smallest that holds every sequence length below the bound,
+//going by the known delay records: lengths stay below 2^10 for seeds under
+//2^29 and below 2^11 for seeds under 2^32. A 10 bit table takes 3.2 times
+//less memory than an int[] while a lookup stays a shift and a mask over two
+//adjacent words.
+//
+//Neighboring entries share words, so writers must not run concurrently.
+class PackedLengthTable implements LengthTable {
+
+    static final int MIN_WIDTH = 10;
+    static final int MAX_WIDTH = 16;
+
+    private final long[] words;
+    private final long bound;
+    private final int width;
+    private final long mask;
+
+    PackedLengthTable(final long bound, int width) {
+        if (bound < 1) {
+            throw new IllegalArgumentException("Input value out of range!");
+        }
+        if (width < MIN_WIDTH || width > MAX_WIDTH) {
+            throw new IllegalArgumentException("Width out of range!");
+        }
+        long wordCount = wordsFor(bound, width);
+        if (wordCount > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Input value out of range!");
+        }
+        this.words = new long[(int) wordCount];
+        this.bound = bound;
+        this.width = width;
+        this.mask = (1L << width) - 1;
+    }
+
+    static PackedLengthTable allocate(final long bound) {
+        return new PackedLengthTable(bound, widthFor(bound));
+    }
+
+    static int widthFor(final long bound) {
+        if (bound < 1L << 29) return 10;
+        if (bound < 1L << 32) return 11;
+        return 12;
+    }
+
+    //One spare word lets get read two words without a bounds branch
+    private static long wordsFor(final long bound, int width) {
+        return ((bound + 1) * width + 63) / 64 + 1;
+    }
+
+    static long bytesFor(final long bound) {
+        return wordsFor(bound, widthFor(bound)) * 8;
+    }
+
+    int width() {
+        return width;
+    }
+
+    @Override
+    public long bound() {
+        return bound;
+    }
+
+    @Override
+    public int get(long n) {
+        long bit = n * width;
+        int word = (int) (bit >>> 6);
+        int offset = (int) bit & 63;
+        //Shifting by 1 and then 63 - offset keeps offset 0 from wrapping
+        //around to a shift by 64
+        return (int) ((words[word] >>> offset | words[word + 1] << 1 << (63 - offset)) & mask);
+    }
+
+    @Override
+    public void set(long n, int length) {
+        if (length < 0 || length > mask) {
+            throw new IllegalArgumentException("Sequence length " + length + " does not fit the table!");
+        }
+        long bit = n * width;
+        int word = (int) (bit >>> 6);
+        int offset = (int) bit & 63;
+        words[word] = words[word] & ~(mask << offset) | (long) length << offset;
+        if (offset + width > 64) {
+            int spill = 64 - offset;
+            words[word + 1] = words[word + 1] & ~(mask >>> spill) | (long) length >>> spill;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package collatz;
 
+import java.util.Objects;
+
 public class Pair<A, B> {
     private A first;
     private B second;
@@ -26,7 +28,12 @@ public class Pair<A, B> {
     public boolean equals(Object obj) {
         if (this == obj) return true;
         else if (!(obj instanceof Pair)) return false;
-        return this.first == ((Pair) obj)._1()
-                && this.second == ((Pair) obj)._2();
+        return Objects.equals(this.first, ((Pair) obj)._1())
+                && Objects.equals(this.second, ((Pair) obj)._2());
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Objects.hashCode(first) + Objects.hashCode(second);
     }
 }
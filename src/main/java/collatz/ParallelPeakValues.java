@@ -0,0 +1,47 @@
+package collatz;
+
+import java.util.concurrent.ForkJoinPool;
+
+//Fills a table of the largest value in each sequence in parallel blocks,
+//using peak(n) = max(values before the first drop to m < n, peak(m)).
+class ParallelPeakValues extends BlockFill {
+
+    private final long[] peakValues;
+
+    private ParallelPeakValues(final long n, int blockSize) {
+        super(n, blockSize);
+        this.peakValues = new long[this.n + 1];
+    }
+
+    static long[] compute(final long n, ForkJoinPool pool, int blockSize) {
+        ParallelPeakValues engine = new ParallelPeakValues(n, blockSize);
+        engine.run(pool);
+        return engine.peakValues;
+    }
+
+    @Override
+    void fill(int start, int end) {
+        long currentN;
+        long peak;
+        long steps = 0;
+        long memoHits = 0;
+        for (int i = Math.max(start, 1); i <= end; i++) {
+            currentN = i;
+            peak = i;
+            do {
+                if (currentN < i && available(currentN, start)) {
+                    peak = Math.max(peak, peakValues[(int) currentN]);
+                    memoHits++;
+                    break;
+                }
+                steps++;
+                if (currentN > peak) peak = currentN;
+                if (currentN == 1) break;
+                else if (currentN % 2 == 0) currentN /= 2;
+                else currentN = currentN * 3 + 1;
+            } while (true);
+            peakValues[i] = peak;
+        }
+        Metrics.kernel(end - Math.max(start, 1) + 1, steps, memoHits);
+    }
+}
@@ -0,0 +1,48 @@
+package collatz;
+
+import java.util.concurrent.ForkJoinPool;
+
+//Fills a sequence length table in parallel blocks. An entry below the
+//current seed is used as a memo when its block is available, otherwise the
+//worker keeps stepping, so the result matches the serial table exactly.
+class ParallelSequenceLengths extends BlockFill {
+
+    private final int[] sequenceLengths;
+
+    private ParallelSequenceLengths(final long n, int blockSize) {
+        super(n, blockSize);
+        this.sequenceLengths = new int[this.n + 1];
+    }
+
+    static int[] compute(final long n, ForkJoinPool pool, int blockSize) {
+        ParallelSequenceLengths engine = new ParallelSequenceLengths(n, blockSize);
+        engine.run(pool);
+        return engine.sequenceLengths;
+    }
+
+    @Override
+    void fill(int start, int end) {
+        long currentN;
+        int count;
+        long steps = 0;
+        long memoHits = 0;
+        for (int i = Math.max(start, 1); i <= end; i++) {
+            currentN = i;
+            count = 0;
+            do {
+                if (currentN < i && available(currentN, start)) {
+                    count += sequenceLengths[(int) currentN];
+                    memoHits++;
+                    break;
+                }
+                count++;
+                steps++;
+                if (currentN == 1) break;
+                else if (currentN % 2 == 0) currentN /= 2;
+                else currentN = currentN * 3 + 1;
+            } while (true);
+            sequenceLengths[i] = count;
+        }
+        Metrics.kernel(end - Math.max(start, 1) + 1, steps, memoHits);
+    }
+}
@@ -0,0 +1,186 @@
+package collatz;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+//A loopback HTTP endpoint in front of a BatchQueryService. Every exchange
+//is handled on its own virtual thread and answered in plain text, one result
+//per line:
+//
+//  GET /length?seeds=27,97,871        one length per seed
+//  GET /peak?seeds=27,97,871          one peak per seed, exact even past the
+//                                     range of long type
+//  GET /twins?kind=length&lo=1&hi=99  "seed value" per twin, kind is length
+//                                     or maxvalue
+//
+//Malformed or out of range queries are answered with 400, and so are twin
+//queries whose hi is above MAX_TWIN_BOUND.
+class QueryServer implements AutoCloseable {
+
+    //Seeds accepted by a single request
+    static final int MAX_SEEDS = 1 << 20;
+
+    //Largest hi accepted by /twins, the twin queries build a table up to hi
+    static final long MAX_TWIN_BOUND = 1 << 24;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final BatchQueryService service;
+
+    private QueryServer(HttpServer server, ExecutorService executor, BatchQueryService service) {
+        this.server = server;
+        this.executor = executor;
+        this.service = service;
+    }
+
+    //Starts a server on the given loopback port, 0 picks a free one
+    static QueryServer start(BatchQueryService service, int port) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        QueryServer queryServer = new QueryServer(server, executor, service);
+        server.createContext("/length", queryServer::length);
+        server.createContext("/peak", queryServer::peak);
+        server.createContext("/twins", queryServer::twins);
+        server.setExecutor(executor);
+        server.start();
+        return queryServer;
+    }
+
+    int port() {
+        return server.getAddress().getPort();
+    }
+
+    private void length(HttpExchange exchange) throws IOException {
+        handle(exchange, parameters -> {
+            int[] lengths = service.lengths(seeds(parameters)).join();
+            StringBuilder body = new StringBuilder();
+            for (int length : lengths) {
+                body.append(length).append('\n');
+            }
+            return body;
+        });
+    }
+
+    private void peak(HttpExchange exchange) throws IOException {
+        handle(exchange, parameters -> {
+            long[] seeds = seeds(parameters);
+            long[] peaks = service.peaks(seeds).join();
+            StringBuilder body = new StringBuilder();
+            for (int i = 0; i < peaks.length; i++) {
+                if (peaks[i] == SeedCache.WIDE_PEAK) {
+                    //Peaks past long type are rare, walk them again exactly
+                    body.append(TrajectoryStats.of(seeds[i]).widePeak()).append('\n');
+                } else {
+                    body.append(peaks[i]).append('\n');
+                }
+            }
+            return body;
+        });
+    }
+
+    private void twins(HttpExchange exchange) throws IOException {
+        handle(exchange, parameters -> {
+            long lo = Long.parseLong(required(parameters, "lo"));
+            long hi = Long.parseLong(required(parameters, "hi"));
+            if (hi > MAX_TWIN_BOUND) {
+                throw new IllegalArgumentException("Range too large!");
+            }
+            String kind = parameters.getOrDefault("kind", "length");
+            TwinResults twins;
+            if (kind.equals("length")) {
+                twins = service.lengthTwins(lo, hi).join();
+            } else if (kind.equals("maxvalue")) {
+                twins = service.maxValueTwins(lo, hi).join();
+            } else {
+                throw new IllegalArgumentException("Unknown twin kind!");
+            }
+            StringBuilder body = new StringBuilder();
+            for (int i = 0; i < twins.size(); i++) {
+                body.append(twins.seed(i)).append(' ').append(twins.value(i)).append('\n');
+            }
+            return body;
+        });
+    }
+
+    private void handle(HttpExchange exchange, Handler handler) throws IOException {
+        int status = 200;
+        CharSequence body;
+        try {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                status = 405;
+                body = "Only GET is supported!\n";
+            } else {
+                body = handler.answer(parameters(exchange.getRequestURI().getRawQuery()));
+            }
+        } catch (CompletionException e) {
+            status = e.getCause() instanceof IllegalArgumentException ? 400 : 500;
+            body = e.getCause().getMessage() + "\n";
+        } catch (IllegalArgumentException e) {
+            status = 400;
+            body = e.getMessage() + "\n";
+        }
+        byte[] bytes = body.toString().getBytes(StandardCharsets.US_ASCII);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=us-ascii");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, String> parameters(String query) {
+        Map<String, String> parameters = new HashMap<>();
+        if (query == null) {
+            return parameters;
+        }
+        for (String parameter : query.split("&")) {
+            int split = parameter.indexOf('=');
+            if (split < 0) {
+                throw new IllegalArgumentException("Malformed query!");
+            }
+            parameters.put(parameter.substring(0, split), parameter.substring(split + 1));
+        }
+        return parameters;
+    }
+
+    private static String required(Map<String, String> parameters, String name) {
+        String value = parameters.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing parameter " + name + "!");
+        }
+        return value;
+    }
+
+    private static long[] seeds(Map<String, String> parameters) {
+        String[] values = required(parameters, "seeds").split(",");
+        if (values.length > MAX_SEEDS) {
+            throw new IllegalArgumentException("Too many seeds!");
+        }
+        long[] seeds = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            seeds[i] = Long.parseLong(values[i]);
+        }
+        return seeds;
+    }
+
+    //Stops accepting requests, the service stays open for its owner
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    private interface Handler {
+        CharSequence answer(Map<String, String> parameters);
+    }
+}
@@ -0,0 +1,624 @@
+package collatz;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.LongUnaryOperator;
+
+//A range computation that survives the death of its JVM. The range is cut
+//into units which workers on a ForkJoinPool compute independently. Every
+//finished unit's partial result is appended to a checkpoint file, which is
+//forced to disk at regular intervals. Running the same job against an
+//existing checkpoint replays the logged units and only computes the rest.
+//
+//The checkpoint starts with a header describing the job, followed by one
+//record per unit: the unit index, the payload length and the payload longs.
+//A record torn by a crash is dropped and its unit computed again.
+//
+//The same header and records make up the protocol of ShardCoordinator,
+//which hands the units to worker processes instead of a local pool. Every
+//kind but lengthTable can be rebuilt from its header by readHeader.
+abstract class RangeJob<R> {
+
+    static final long MAGIC = 0x434f4c4c4a4f4231L;
+    static final int VERSION = 1;
+    static final int DEFAULT_UNIT_SIZE = 1 << 20;
+    static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 10000;
+
+    final long lo;
+    final long hi;
+    final int unitSize;
+    private final long units;
+    private long flushIntervalMillis = DEFAULT_FLUSH_INTERVAL_MILLIS;
+
+    private final AtomicLong unitsDone = new AtomicLong();
+    private final LongAdder seedsComputed = new LongAdder();
+    private volatile long startNanos;
+
+    RangeJob(final long lo, final long hi, int unitSize) {
+        //Make sure lo is actually lower than hi
+        if (lo > hi) {
+            throw new IllegalArgumentException("Incorrect input order!");
+        }
+        if (lo < 1 || hi > Long.MAX_VALUE - unitSize) {
+            throw new IllegalArgumentException("Input value out of range!");
+        }
+        if (unitSize < 1 || (hi - lo) / unitSize >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Unit size out of range!");
+        }
+        this.lo = lo;
+        this.hi = hi;
+        this.unitSize = unitSize;
+        this.units = (hi - lo) / unitSize + 1;
+    }
+
+    //Name of the computation, stored in the checkpoint header
+    abstract String kind();
+
+    //Extra input of the computation, stored in the checkpoint header
+    abstract long parameter();
+
+    //Computes the partial result of the seeds unitLo..unitHi. May be called
+    //from several threads at once.
+    abstract long[] computeUnit(long unitLo, long unitHi);
+
+    //Merges the partial result of a unit, never called concurrently
+    abstract void accept(long unit, long[] payload);
+
+    abstract R result();
+
+    RangeJob<R> flushInterval(long millis) {
+        this.flushIntervalMillis = millis;
+        return this;
+    }
+
+    long totalUnits() {
+        return units;
+    }
+
+    long unitsDone() {
+        return unitsDone.get();
+    }
+
+    long unitLo(long unit) {
+        return lo + unit * unitSize;
+    }
+
+    long unitHi(long unit) {
+        return Math.min(unitLo(unit) + unitSize - 1, hi);
+    }
+
+    //Seeds computed per second by this run, not counting replayed units
+    double seedsPerSecond() {
+        long elapsed = System.nanoTime() - startNanos;
+        return startNanos == 0 || elapsed == 0 ? 0 : seedsComputed.sum() * 1e9 / elapsed;
+    }
+
+    R run(Path checkpoint, ForkJoinPool pool) throws IOException {
+        Set<Long> replayed = new HashSet<>();
+        long validLength = replay(checkpoint, replayed);
+
+        try (FileChannel channel = FileChannel.open(checkpoint, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE)) {
+            channel.truncate(validLength);
+            channel.position(validLength);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            if (validLength == 0) {
+                out.write(header());
+            }
+
+            AtomicLong nextUnit = new AtomicLong();
+            long[] lastFlush = {System.nanoTime()};
+            startNanos = System.nanoTime();
+            List<ForkJoinTask<?>> workers = new ArrayList<>();
+            for (int i = 0; i < pool.getParallelism(); i++) {
+                workers.add(pool.submit(() -> {
+                    long unit;
+                    while ((unit = nextUnit.getAndIncrement()) < units) {
+                        if (replayed.contains(unit)) continue;
+                        long unitLo = unitLo(unit);
+                        long unitHi = unitHi(unit);
+                        long unitStart = Metrics.start();
+                        long[] payload = computeUnit(unitLo, unitHi);
+                        Metrics.rangeUnit(unitStart);
+                        seedsComputed.add(unitHi - unitLo + 1);
+                        synchronized (this) {
+                            accept(unit, payload);
+                            try {
+                                writeRecord(out, unit, payload);
+                                if (System.nanoTime() - lastFlush[0] >= flushIntervalMillis * 1000000) {
+                                    out.flush();
+                                    channel.force(false);
+                                    lastFlush[0] = System.nanoTime();
+                                }
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                            unitsDone.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            try {
+                for (ForkJoinTask<?> worker : workers) {
+                    worker.join();
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            out.flush();
+            channel.force(false);
+        }
+        return result();
+    }
+
+    //Merges a unit computed by a worker process, never called concurrently
+    void acceptRemote(long unit, long[] payload) {
+        if (startNanos == 0) {
+            startNanos = System.nanoTime();
+        }
+        accept(unit, payload);
+        seedsComputed.add(unitHi(unit) - unitLo(unit) + 1);
+        unitsDone.incrementAndGet();
+    }
+
+    byte[] header() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream header = new DataOutputStream(bytes);
+        header.writeLong(MAGIC);
+        header.writeInt(VERSION);
+        header.writeUTF(kind());
+        header.writeLong(lo);
+        header.writeLong(hi);
+        header.writeInt(unitSize);
+        header.writeLong(parameter());
+        return bytes.toByteArray();
+    }
+
+    static void writeRecord(DataOutputStream out, long unit, long[] payload) throws IOException {
+        out.writeLong(unit);
+        out.writeInt(payload.length);
+        for (long value : payload) {
+            out.writeLong(value);
+        }
+    }
+
+    //Reads the payload of a record whose unit has already been read
+    static long[] readPayload(DataInputStream in, int maxLength) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > maxLength) {
+            throw new IOException("Payload length " + length + " out of range!");
+        }
+        long[] payload = new long[length];
+        for (int i = 0; i < length; i++) {
+            payload[i] = in.readLong();
+        }
+        return payload;
+    }
+
+    //Longest payload a unit may produce, two longs for every seed unless the
+    //job says otherwise
+    int maxPayloadLength() {
+        return (int) Math.min(Integer.MAX_VALUE - 8, 2L * unitSize);
+    }
+
+    //Rebuilds a job from the header written by header()
+    static RangeJob<?> readHeader(DataInputStream in) throws IOException {
+        if (in.readLong() != MAGIC) {
+            throw new IOException("Not a range job!");
+        }
+        if (in.readInt() != VERSION) {
+            throw new IOException("Unsupported range job version!");
+        }
+        String kind = in.readUTF();
+        long lo = in.readLong();
+        long hi = in.readLong();
+        int unitSize = in.readInt();
+        long parameter = in.readLong();
+        try {
+            switch (kind) {
+                case "convergence":
+                    return convergence(lo, hi, unitSize, (int) parameter);
+                case "occurrences":
+                    return occurrences(hi, (int) parameter, unitSize);
+                case "lengthTwins":
+                    return lengthTwins(lo, hi, unitSize);
+                case "maxValueTwins":
+                    return maxValueTwins(lo, hi, unitSize);
+                case "lengths":
+                    return lengths(hi, unitSize);
+                case "delayRecords":
+                    return delayRecords(lo, hi, unitSize, (int) parameter);
+                case "pathRecords":
+                    return pathRecords(lo, hi, unitSize, parameter);
+                default:
+                    throw new IOException("Job " + kind + " cannot be rebuilt from its header!");
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid " + kind + " job: " + e.getMessage());
+        }
+    }
+
+    //Feeds every complete record of an existing checkpoint into the job and
+    //returns the length of the valid part of the file
+    private long replay(Path checkpoint, Set<Long> replayed) throws IOException {
+        if (!Files.exists(checkpoint) || Files.size(checkpoint) == 0) {
+            return 0;
+        }
+        long size = Files.size(checkpoint);
+        byte[] expected = header();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(checkpoint)))) {
+            byte[] actual = new byte[expected.length];
+            try {
+                in.readFully(actual);
+            } catch (EOFException e) {
+                throw new IOException("Checkpoint belongs to a different job!");
+            }
+            for (int i = 0; i < expected.length; i++) {
+                if (actual[i] != expected[i]) {
+                    throw new IOException(i < 12 ? "Not a checkpoint file!" : "Checkpoint belongs to a different job!");
+                }
+            }
+
+            long valid = expected.length;
+            while (size - valid >= 12) {
+                long unit = in.readLong();
+                int length = in.readInt();
+                if (unit < 0 || unit >= units || length < 0 || (size - valid - 12) / 8 < length) {
+                    break;
+                }
+                long[] payload = new long[length];
+                for (int i = 0; i < length; i++) {
+                    payload[i] = in.readLong();
+                }
+                if (replayed.add(unit)) {
+                    accept(unit, payload);
+                    unitsDone.incrementAndGet();
+                }
+                valid += 12 + 8L * length;
+            }
+            return valid;
+        }
+    }
+
+    static RangeJob<Long> convergence(final long lo, final long hi, int unitSize, int sieveBits) {
+        ConvergenceVerifier verifier = new ConvergenceVerifier(sieveBits);
+        return new RangeJob<Long>(lo, hi, unitSize) {
+            private long firstFailure = -1;
+
+            @Override
+            String kind() {
+                return "convergence";
+            }
+
+            @Override
+            long parameter() {
+                return sieveBits;
+            }
+
+            @Override
+            long[] computeUnit(long unitLo, long unitHi) {
+                return new long[]{verifier.verifyRange(unitLo, unitHi)};
+            }
+
+            @Override
+            void accept(long unit, long[] payload) {
+                if (payload[0] != -1 && (firstFailure == -1 || payload[0] < firstFailure)) {
+                    firstFailure = payload[0];
+                }
+            }
+
+            @Override
+            Long result() {
+                return firstFailure;
+            }
+        };
+    }
+
+    static RangeJob<long[]> occurrences(final long n, int counts, int unitSize) {
+        if (counts < 1) {
+            throw new IllegalArgumentException("Input value out of range!");
+        }
+        return new RangeJob<long[]>(1, n, unitSize) {
+            private final long[] entryCounts = new long[counts + 1];
+
+            @Override
+            String kind() {
+                return "occurrences";
+            }
+
+            @Override
+            long parameter() {
+                return counts;
+            }
+
+            @Override
+            int maxPayloadLength() {
+                return counts + 1;
+            }
+
+            @Override
+            long[] computeUnit(long unitLo, long unitHi) {
+                long[] unitCounts = new long[counts + 1];
+                OccurrenceCounter.countEntries(unitLo, unitHi, counts, unitCounts);
+                return unitCounts;
+            }
+
+            @Override
+            void accept(long unit, long[] payload) {
+                for (int v = 1; v <= counts; v++) {
+                    entryCounts[v] += payload[v];
+                }
+            }
+
+            @Override
+            long[] result() {
+                long[] occurrences = entryCounts.clone();
+                OccurrenceCounter.accumulateEntries(occurrences, counts,
+                        v -> OccurrenceCounter.walkedParent(v, counts));
+                return occurrences;
+            }
+        };
+    }
+
+    //Every unit also looks at the seed after its last one, so the twins that
+    //straddle a unit border are found by the unit below the border.
+    static RangeJob<TwinResults> lengthTwins(final long lo, final long hi, int unitSize) {
+        JumpTable jumps = JumpTable.of(16);
+        return twins("lengthTwins", lo, hi, unitSize, jumps::lengthOf);
+    }
+
+    static RangeJob<TwinResults> maxValueTwins(final long lo, final long hi, int unitSize) {
+        //Check for seeds whose peaks, or that of the seed after them, might
+        //not fit into a long, the first being LONG_PEAK_BOUND + 1.
+        if (hi >= TrajectoryStats.LONG_PEAK_BOUND) {
+            throw new IllegalArgumentException("Input value out of range!");
+        }
+        return twins("maxValueTwins", lo, hi, unitSize, n -> TrajectoryStats.of(n).peak());
+    }
+
+    private static RangeJob<TwinResults> twins(String kind, final long lo, final long hi, int unitSize,
+                                               LongUnaryOperator valueOf) {
+        return new RangeJob<TwinResults>(lo, hi, unitSize) {
+            private final Map<Long, long[]> twins = new TreeMap<>();
+
+            @Override
+            String kind() {
+                return kind;
+            }
+
+            @Override
+            long parameter() {
+                return 0;
+            }
+
+            @Override
+            long[] computeUnit(long unitLo, long unitHi) {
+                TwinResults found = new TwinResults();
+                long value = valueOf.applyAsLong(unitLo);
+                for (long i = unitLo; i <= unitHi; i++) {
+                    long next = valueOf.applyAsLong(i + 1);
+                    if (value == next) {
+                        found.add(i, value);
+                    }
+                    value = next;
+                }
+                return pack(found);
+            }
+
+            @Override
+            void accept(long unit, long[] payload) {
+                twins.put(unit, payload);
+            }
+
+            @Override
+            TwinResults result() {
+                return unpack(twins);
+            }
+        };
+    }
+
+    //Table of every length up to n. The lengths of a unit travel two to a
+    //long, and the table is only allocated by the side that merges them.
+    static RangeJob<LengthTable> lengths(final long n, int unitSize) {
+        if (n < 1 || n > LengthTables.maxBound()) {
+            throw new IllegalArgumentException("Input value out of range!");
+        }
+        JumpTable jumps = JumpTable.of(16);
+        return new RangeJob<LengthTable>(1, n, unitSize) {
+            private LengthTable table;
+
+            @Override
+            String kind() {
+                return "lengths";
+            }
+
+            @Override
+            long parameter() {
+                return 0;
+            }
+
+            @Override
+            long[] computeUnit(long unitLo, long unitHi) {
+                long[] payload = new long[(int) ((unitHi - unitLo + 2) / 2)];
+                for (long i = unitLo; i <= unitHi; i++) {
+                    int offset = (int) (i - unitLo);
+                    payload[offset >>> 1] |= (long) jumps.lengthOf(i) << (32 * (offset & 1));
+                }
+                return payload;
+            }
+
+            @Override
+            void accept(long unit, long[] payload) {
+                if (table == null) {
+                    table = LengthTables.allocate(hi);
+                }
+                long unitLo = unitLo(unit);
+                long unitHi = unitHi(unit);
+                for (long i = unitLo; i <= unitHi; i++) {
+                    int offset = (int) (i - unitLo);
+                    table.set(i, (int) (payload[offset >>> 1] >>> (32 * (offset & 1))));
+                }
+            }
+
+            @Override
+            LengthTable result() {
+                return table;
+            }
+        };
+    }
+
+    //Delay records in [lo, hi], given the longest sequence below lo. Every
+    //unit reports its records relative to its own start, which are merged
+    //in order against the running record like the chunks of RecordSearch.
+    static RangeJob<TwinResults> delayRecords(final long lo, final long hi, int unitSize, int previous) {
+        RecordSearch search = new RecordSearch(ForkJoinPool.commonPool(), unitSize);
+        return records("delayRecords", lo, hi, unitSize, previous, search::delayChunkRows);
+    }
+
+    //Path records in [lo, hi], given the highest peak below lo, for peaks
+    //within long type
+    static RangeJob<TwinResults> pathRecords(final long lo, final long hi, int unitSize, long previous) {
+        //Check for seeds whose peaks might not fit into a long
+        if (hi > TrajectoryStats.LONG_PEAK_BOUND) {
+            throw new IllegalArgumentException("Input value out of range!");
+        }
+        RecordSearch search = new RecordSearch(ForkJoinPool.commonPool(), unitSize);
+        return records("pathRecords", lo, hi, unitSize, previous, search::pathChunkRows);
+    }
+
+    private static RangeJob<TwinResults> records(String kind, final long lo, final long hi, int unitSize,
+                                                 long previous, BiFunction<Long, Long, TwinResults> chunk) {
+        if (previous < 0) {
+            throw new IllegalArgumentException("Input value out of range!");
+        }
+        return new RangeJob<TwinResults>(lo, hi, unitSize) {
+            private final Map<Long, long[]> records = new TreeMap<>();
+
+            @Override
+            String kind() {
+                return kind;
+            }
+
+            @Override
+            long parameter() {
+                return previous;
+            }
+
+            @Override
+            long[] computeUnit(long unitLo, long unitHi) {
+                return pack(chunk.apply(unitLo, unitHi));
+            }
+
+            @Override
+            void accept(long unit, long[] payload) {
+                records.put(unit, payload);
+            }
+
+            @Override
+            TwinResults result() {
+                TwinResults result = new TwinResults();
+                long best = previous;
+                for (long[] payload : records.values()) {
+                    for (int i = 0; i < payload.length; i += 2) {
+                        if (payload[i + 1] > best) {
+                            best = payload[i + 1];
+                            result.add(payload[i], best);
+                        }
+                    }
+                }
+                return result;
+            }
+        };
+    }
+
+    private static long[] pack(TwinResults rows) {
+        long[] payload = new long[2 * rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            payload[2 * i] = rows.seed(i);
+            payload[2 * i + 1] = rows.value(i);
+        }
+        return payload;
+    }
+
+    private static TwinResults unpack(Map<Long, long[]> payloads) {
+        TwinResults result = new TwinResults();
+        for (long[] payload : payloads.values()) {
+            for (int i = 0; i < payload.length; i += 2) {
+                result.add(payload[i], payload[i + 1]);
+            }
+        }
+        return result;
+    }
+
+    //Fills the cache up to n unit by unit. Every unit fills and forces only
+    //its own slice of the mapped table before it is logged, and merging a
+    //unit, live or replayed, lets the cache move its bound over the units
+    //that follow it without a gap.
+    static RangeJob<LengthTable> lengthTable(LengthCache cache, final long n, int unitSize) {
+        return new RangeJob<LengthTable>(1, n, unitSize) {
+            @Override
+            String kind() {
+                return "lengthTable";
+            }
+
+            @Override
+            long parameter() {
+                return 0;
+            }
+
+            @Override
+            long[] computeUnit(long unitLo, long unitHi) {
+                if (unitHi <= cache.bound()) {
+                    return new long[0];
+                }
+                try {
+                    cache.reserve(hi);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                cache.fillRange(unitLo, unitHi);
+                return new long[0];
+            }
+
+            @Override
+            void accept(long unit, long[] payload) {
+                try {
+                    cache.markFilled(unitLo(unit), unitHi(unit));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            LengthTable result() {
+                try {
+                    return cache.ensure(hi);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+}
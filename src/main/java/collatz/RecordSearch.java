@@ -0,0 +1,226 @@
+package collatz;
+
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+//Streams seeds in parallel chunks and keeps only the running records, so
+//no table is allocated and the range may go far past TABLE_LIMIT.
+//
+//A delay record is a seed whose sequence is longer than that of every
+//smaller seed, a path record one whose peak is higher. Residue classes that
+//provably cannot set a record are skipped:
+//
+//  delay, n = 8k + 5, k >= 1   8k + 4 and 8k + 5 both reach 6k + 4 in three
+//                              steps, so their lengths are equal
+//  path, even n > 2            the peak is n itself, below the peak 3n - 2 of
+//                              n - 1, or that of the odd part of n
+//  path, n = 4k + 1, k >= 1    the peak is 12k + 4 or that of 3k + 1, and
+//                              4k - 1 reaches 18k - 2 >= 12k + 4
+//
+//A path candidate is only walked until it drops below itself: every later
+//value has a peak no higher than the record so far, so the candidate is a
+//record exactly when the maximum of the walk beats it.
+//
+//Every chunk reports its records relative to its own start. The chunks are
+//merged in ascending order against the running record, which keeps exactly
+//the global records, while a bounded window of chunks is in flight.
+class RecordSearch {
+
+    static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+    //Chunks in flight per worker of the pool
+    static final int WINDOW_PER_WORKER = 4;
+
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+    private final JumpTable jumps;
+
+    RecordSearch(ForkJoinPool pool, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size needs to be positive!");
+        }
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+        this.jumps = JumpTable.of(16);
+    }
+
+    //Delay records in [lo, hi], given the longest sequence of the seeds
+    //below lo, 0 when lo is 1
+    List<Pair<Long, Integer>> delayRecords(final long lo, final long hi, int previous) {
+        checkRange(lo, hi);
+        return search(lo, hi, previous, this::delayChunk).asPairs();
+    }
+
+    //Same records as rows of seed and length
+    TwinResults delayRecordRows(final long lo, final long hi, int previous) {
+        checkRange(lo, hi);
+        return intRows(search(lo, hi, previous, this::delayChunk));
+    }
+
+    private static TwinResults intRows(Found<Integer> found) {
+        TwinResults rows = new TwinResults(found.size);
+        for (int i = 0; i < found.size; i++) {
+            rows.add(found.seeds[i], found.values.get(i));
+        }
+        return rows;
+    }
+
+    //Path records in [lo, hi], given the highest peak of the seeds below
+    //lo, 0 when lo is 1
+    List<Pair<Long, BigInteger>> pathRecords(final long lo, final long hi, BigInteger previous) {
+        checkRange(lo, hi);
+        return search(lo, hi, previous, this::pathChunk).asPairs();
+    }
+
+    //Same records as rows of seed and peak, for peaks within long type
+    TwinResults pathRecordRows(final long lo, final long hi, long previous) {
+        checkRange(lo, hi);
+        return longRows(search(lo, hi, BigInteger.valueOf(previous), this::pathChunk));
+    }
+
+    private static TwinResults longRows(Found<BigInteger> found) {
+        TwinResults rows = new TwinResults(found.size);
+        for (int i = 0; i < found.size; i++) {
+            if (found.values.get(i).bitLength() > 63) {
+                throw new IllegalArgumentException("Peak of " + found.seeds[i] + " does not fit into a long!");
+            }
+            rows.add(found.seeds[i], found.values.get(i).longValue());
+        }
+        return rows;
+    }
+
+    //Records of the seeds start..end relative to start, for callers that
+    //merge the chunks themselves
+    TwinResults delayChunkRows(final long start, final long end) {
+        checkRange(start, end);
+        return intRows(delayChunk(start, end));
+    }
+
+    TwinResults pathChunkRows(final long start, final long end) {
+        checkRange(start, end);
+        return longRows(pathChunk(start, end));
+    }
+
+    private static void checkRange(final long lo, final long hi) {
+        //Make sure lo is actually lower than hi
+        if (lo > hi) {
+            throw new IllegalArgumentException("Incorrect input order!");
+        }
+        if (lo < 1 || hi > WideTrajectory.STEP_LIMIT) {
+            throw new IllegalArgumentException("Input value out of range!");
+        }
+    }
+
+    private <V extends Comparable<V>> Found<V> search(final long lo, final long hi, V previous,
+                                                     ChunkSearch<V> chunkSearch) {
+        int window = Math.max(1, pool.getParallelism() * WINDOW_PER_WORKER);
+        ArrayDeque<ForkJoinTask<Found<V>>> inFlight = new ArrayDeque<>();
+        Found<V> records = new Found<>();
+        V best = previous;
+        long next = lo;
+        while (next <= hi || !inFlight.isEmpty()) {
+            while (next <= hi && inFlight.size() < window) {
+                long start = next;
+                long end = hi - start < chunkSize ? hi : start + chunkSize - 1;
+                inFlight.add(pool.submit(() -> chunkSearch.search(start, end)));
+                next = end + 1;
+            }
+            Found<V> found = inFlight.poll().join();
+            for (int i = 0; i < found.size; i++) {
+                if (found.values.get(i).compareTo(best) > 0) {
+                    best = found.values.get(i);
+                    records.add(found.seeds[i], best);
+                }
+            }
+        }
+        return records;
+    }
+
+    private Found<Integer> delayChunk(final long start, final long end) {
+        Found<Integer> found = new Found<>();
+        int best = 0;
+        long steps = 0;
+        for (long n = start; n <= end; n++) {
+            if (n % 8 == 5 && n > 5) continue;
+            int length = jumps.lengthOf(n);
+            steps += length;
+            if (length > best) {
+                best = length;
+                found.add(n, length);
+            }
+        }
+        Metrics.kernel(end - start + 1, steps, 0);
+        return found;
+    }
+
+    private Found<BigInteger> pathChunk(final long start, final long end) {
+        Found<BigInteger> found = new Found<>();
+        //Once a peak past long type is the best, no long peak can beat it
+        long best = 0;
+        BigInteger wideBest = null;
+        long steps = 0;
+        for (long n = start; n <= end; n++) {
+            if (n > 2 && n % 4 != 3) continue;
+            long currentN = n;
+            long peak = n;
+            boolean wide = false;
+            while (currentN >= n && n > 2) {
+                steps++;
+                if (currentN % 2 == 0) currentN /= 2;
+                else if (currentN > WideTrajectory.STEP_LIMIT) {
+                    wide = true;
+                    break;
+                } else {
+                    currentN = currentN * 3 + 1;
+                    if (currentN > peak) peak = currentN;
+                }
+            }
+            if (wide) {
+                BigInteger widePeak = WideTrajectory.peakOf(BigInteger.valueOf(n));
+                if (wideBest == null || widePeak.compareTo(wideBest) > 0) {
+                    wideBest = widePeak;
+                    best = Long.MAX_VALUE;
+                    found.add(n, widePeak);
+                }
+            } else if (peak > best) {
+                best = peak;
+                found.add(n, BigInteger.valueOf(peak));
+            }
+        }
+        Metrics.kernel(end - start + 1, steps, 0);
+        return found;
+    }
+
+    private interface ChunkSearch<V> {
+        Found<V> search(long start, long end);
+    }
+
+    //Records in ascending order, of one chunk relative to its start or
+    //merged
+    private static class Found<V> {
+        long[] seeds = new long[8];
+        final List<V> values = new ArrayList<>();
+        int size;
+
+        void add(long seed, V value) {
+            if (size == seeds.length) {
+                seeds = Arrays.copyOf(seeds, size * 2);
+            }
+            seeds[size++] = seed;
+            values.add(value);
+        }
+
+        List<Pair<Long, V>> asPairs() {
+            List<Pair<Long, V>> pairs = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                pairs.add(new Pair<>(seeds[i], values.get(i)));
+            }
+            return pairs;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package collatz;
+
+//Length table that only stores the irreducible seeds, those congruent to
+//3 mod 4, in a backing table a quarter of the size. Every other entry is
+//derived on lookup from a smaller seed:
+//
+//  even n          len(n) = t + len(n >> t), for t trailing zeros
+//  n = 1 mod 4     len(n) = 3 + len((3n + 1) / 4), as 3n + 1 = 0 mod 4
+//
+//so a lookup follows a short chain of shifts and 3n + 1 steps until it
+//hits 1 or a stored entry. Setting a derived entry has no effect.
+class ReducedLengthTable implements LengthTable {
+
+    private final LengthTable stored;
+    private final long bound;
+
+    ReducedLengthTable(LengthTable stored, final long bound) {
+        if (bound < 1) {
+            throw new IllegalArgumentException("Input value out of range!");
+        }
+        if (stored.bound() < storedBound(bound)) {
+            throw new IllegalArgumentException("Backing table too small!");
+        }
+        this.stored = stored;
+        this.bound = bound;
+    }
+
+    //Backed by a packed table wide enough for the lengths up to bound
+    static ReducedLengthTable allocate(final long bound) {
+        return new ReducedLengthTable(
+                new PackedLengthTable(storedBound(bound), PackedLengthTable.widthFor(bound)), bound);
+    }
+
+    //Index of the largest stored seed, seed 4k + 3 is stored at k
+    static long storedBound(final long bound) {
+        return Math.max(1, bound >>> 2);
+    }
+
+    //Fills the stored entries, walking each stored seed until it drops
+    //below itself
+    void fill() {
+        long currentN;
+        int count;
+        for (long k = 0, seed = 3; seed <= bound; k++, seed += 4) {
+            currentN = seed;
+            count = 0;
+            do {
+                if (currentN < seed) {
+                    count += get(currentN);
+                    break;
+                }
+                count++;
+                if (currentN % 2 == 0) currentN /= 2;
+                else if (currentN > LengthTables.STEP_LIMIT) {
+                    //Finish the trajectory beyond the range of long type
+                    count += WideTrajectory.lengthOf(currentN) - 1;
+                    break;
+                } else currentN = currentN * 3 + 1;
+            } while (true);
+            stored.set(k, count);
+        }
+    }
+
+    @Override
+    public long bound() {
+        return bound;
+    }
+
+    @Override
+    public int get(long n) {
+        if (n == 0) return 0;
+        int count = 0;
+        while (true) {
+            int zeros = Long.numberOfTrailingZeros(n);
+            n >>>= zeros;
+            count += zeros;
+            if (n == 1) return count + 1;
+            if ((n & 3) == 3) return count + stored.get(n >>> 2);
+            n = 3 * (n >>> 2) + 1;
+            count += 3;
+        }
+    }
+
+    @Override
+    public void set(long n, int length) {
+        if ((n & 3) == 3) {
+            stored.set(n >>> 2, length);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package collatz;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+//Builds the inverse Collatz tree breadth first. The predecessors of m are
+//2m, and (m - 1) / 3 when m = 4 mod 6 and the result is not 1, so level L of
+//the tree rooted at 1 holds exactly the seeds of sequence length L. Every
+//seed has a single successor, hence the levels never repeat a value.
+//
+//Frontiers are plain long[] buffers. A level is expanded in two parallel
+//passes over fixed chunks, counting the children of every chunk and then
+//writing them at their prefix offsets, so no chunk waits on another.
+//
+//The work of a query is proportional to the tree it walks, not to the
+//seeds below some bound: a length bucket costs the levels up to it, and a
+//pass-through query costs the subtree below the value.
+//
+//A pass-through query prunes the frontier values above its bound that
+//cannot lead back below it: multiples of 3 only ever double, and no value
+//shrinks by more than a factor of 3 per level. The other values above the
+//bound still have to be expanded, so the frontier keeps growing by about a
+//quarter per level and is capped at MAX_FRONTIER entries. For bounds in the
+//millions that allows a depth of about 85, deeper queries throw
+//IllegalArgumentException.
+class ReverseTree {
+
+    //Level 63 holds values up to 2^62, the deepest whose doubling fits in a
+    //long, so every level up to it is complete
+    static final int MAX_LENGTH = 63;
+
+    //Frontier entries expanded by one task
+    static final int CHUNK_SIZE = 1 << 14;
+
+    //Entries a pass-through query holds in its frontier and results
+    static final int MAX_FRONTIER = 1 << 22;
+
+    private static final long DOUBLING_LIMIT = Long.MAX_VALUE / 2;
+
+    //3^i for every power that fits into a long
+    private static final long[] POWERS_OF_THREE = new long[40];
+
+    static {
+        POWERS_OF_THREE[0] = 1;
+        for (int i = 1; i < POWERS_OF_THREE.length; i++) {
+            POWERS_OF_THREE[i] = POWERS_OF_THREE[i - 1] * 3;
+        }
+    }
+
+    private final ForkJoinPool pool;
+
+    ReverseTree(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    //All seeds with sequence length exactly length, ascending
+    long[] seedsWithLength(int length) {
+        return seedsWithLength(length, Long.MAX_VALUE);
+    }
+
+    //The seeds up to bound with sequence length exactly length, ascending
+    long[] seedsWithLength(int length, long bound) {
+        if (length < 1 || length > MAX_LENGTH) {
+            throw new IllegalArgumentException("Input value out of range!");
+        }
+        long[] frontier = {1};
+        for (int level = 1; level < length; level++) {
+            frontier = expand(frontier);
+        }
+        return sortedUpTo(frontier, frontier.length, bound);
+    }
+
+    //The seeds up to bound whose sequence reaches value within depth steps,
+    //value itself included, ascending. Values whose doubling leaves the
+    //range of long type are not expanded further. Throws
+    //IllegalArgumentException once the frontier and the results would
+    //exceed MAX_FRONTIER entries.
+    long[] passingThrough(long value, int depth, long bound) {
+        if (value < 1 || depth < 0) {
+            throw new IllegalArgumentException("Input value out of range!");
+        }
+        long[] found = new long[16];
+        int size = 0;
+        long[] frontier = {value};
+        for (int level = 0; ; level++) {
+            for (long seed : frontier) {
+                if (seed <= bound) {
+                    if (size == found.length) {
+                        found = Arrays.copyOf(found, size * 2);
+                    }
+                    found[size++] = seed;
+                }
+            }
+            if (level == depth || frontier.length == 0) {
+                break;
+            }
+            frontier = expand(prune(frontier, depth - level, bound), MAX_FRONTIER - size);
+        }
+        return sortedUpTo(found, size, bound);
+    }
+
+    //Drops the values above bound whose subtree of the given number of
+    //levels stays above it
+    private static long[] prune(long[] frontier, int levels, long bound) {
+        //Every level at least divides by 3 and subtracts less than 1/2 in
+        //total, so a value m leads no lower than m / 3^levels - 1/2
+        long power = levels < POWERS_OF_THREE.length ? POWERS_OF_THREE[levels] : Long.MAX_VALUE;
+        int kept = 0;
+        long[] pruned = new long[frontier.length];
+        for (long m : frontier) {
+            if (m <= bound || (m % 3 != 0 && m / power <= bound)) {
+                pruned[kept++] = m;
+            }
+        }
+        return kept == frontier.length ? frontier : Arrays.copyOf(pruned, kept);
+    }
+
+    //The predecessors of every entry of the frontier
+    long[] expand(long[] frontier) {
+        return expand(frontier, Integer.MAX_VALUE - 8);
+    }
+
+    //Same, throwing when there would be more than limit predecessors
+    private long[] expand(long[] frontier, int limit) {
+        int chunks = (frontier.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        if (chunks <= 1) {
+            int count = children(frontier, 0, frontier.length);
+            if (count > limit) {
+                throw new IllegalArgumentException("Level does not fit into an array!");
+            }
+            long[] next = new long[count];
+            write(frontier, 0, frontier.length, next, 0);
+            return next;
+        }
+
+        int[] offsets = new int[chunks + 1];
+        List<ForkJoinTask<?>> counts = new ArrayList<>();
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            int start = chunk * CHUNK_SIZE;
+            int end = Math.min(frontier.length, start + CHUNK_SIZE);
+            int slot = chunk + 1;
+            counts.add(pool.submit(() -> {
+                offsets[slot] = children(frontier, start, end);
+            }));
+        }
+        joinAll(counts);
+        long total = 0;
+        for (int chunk = 1; chunk <= chunks; chunk++) {
+            total += offsets[chunk];
+            if (total > limit) {
+                throw new IllegalArgumentException("Level does not fit into an array!");
+            }
+            offsets[chunk] = (int) total;
+        }
+
+        long[] next = new long[(int) total];
+        List<ForkJoinTask<?>> writes = new ArrayList<>();
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            int start = chunk * CHUNK_SIZE;
+            int end = Math.min(frontier.length, start + CHUNK_SIZE);
+            int offset = offsets[chunk];
+            writes.add(pool.submit(() -> write(frontier, start, end, next, offset)));
+        }
+        joinAll(writes);
+        return next;
+    }
+
+    private static int children(long[] frontier, int start, int end) {
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            long m = frontier[i];
+            if (m <= DOUBLING_LIMIT) count++;
+            if (m % 6 == 4 && m > 4) count++;
+        }
+        return count;
+    }
+
+    private static void write(long[] frontier, int start, int end, long[] next, int offset) {
+        for (int i = start; i < end; i++) {
+            long m = frontier[i];
+            if (m <= DOUBLING_LIMIT) next[offset++] = 2 * m;
+            if (m % 6 == 4 && m > 4) next[offset++] = (m - 1) / 3;
+        }
+    }
+
+    private static void joinAll(List<ForkJoinTask<?>> tasks) {
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+    }
+
+    private static long[] sortedUpTo(long[] values, int size, long bound) {
+        int kept = 0;
+        long[] result = new long[size];
+        for (int i = 0; i < size; i++) {
+            if (values[i] <= bound) {
+                result[kept++] = values[i];
+            }
+        }
+        result = Arrays.copyOf(result, kept);
+        Arrays.sort(result);
+        return result;
+    }
+}
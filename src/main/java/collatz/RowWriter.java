@@ -0,0 +1,180 @@
+package collatz;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+//Writes rows of a seed and a value to a channel through one reusable
+//buffer, block by block, in one of the CollatzCli formats.
+abstract class RowWriter implements AutoCloseable {
+
+    final FileChannel channel;
+    final ByteBuffer buffer = ByteBuffer.allocateDirect(CollatzCli.BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+    RowWriter(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    static RowWriter of(CollatzCli.Format format, FileChannel channel, String valueName) throws IOException {
+        switch (format) {
+            case CSV:
+                return new CsvWriter(channel, valueName);
+            case BIN:
+                return new BinWriter(channel);
+            default:
+                return new ColumnarWriter(channel);
+        }
+    }
+
+    abstract void write(TwinResults rows) throws IOException;
+
+    //Makes room for the given number of bytes
+    void reserve(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+
+    //A header line and one "seed,value" line per row, digits written
+    //straight into the buffer
+    static class CsvWriter extends RowWriter {
+        private static final int MAX_ROW_BYTES = 2 * 20 + 2;
+        private final byte[] digits = new byte[20];
+
+        CsvWriter(FileChannel channel, String valueName) throws IOException {
+            super(channel);
+            buffer.put(("seed," + valueName + "\n").getBytes(StandardCharsets.US_ASCII));
+        }
+
+        @Override
+        void write(TwinResults rows) throws IOException {
+            for (int i = 0; i < rows.size(); i++) {
+                reserve(MAX_ROW_BYTES);
+                putDecimal(rows.seed(i));
+                buffer.put((byte) ',');
+                putDecimal(rows.value(i));
+                buffer.put((byte) '\n');
+            }
+        }
+
+        //Values are never negative
+        private void putDecimal(long value) {
+            int start = digits.length;
+            do {
+                digits[--start] = (byte) ('0' + value % 10);
+                value /= 10;
+            } while (value != 0);
+            buffer.put(digits, start, digits.length - start);
+        }
+    }
+
+    //Rows of two little-endian int64, without header
+    static class BinWriter extends RowWriter {
+
+        BinWriter(FileChannel channel) {
+            super(channel);
+        }
+
+        @Override
+        void write(TwinResults rows) throws IOException {
+            for (int i = 0; i < rows.size(); i++) {
+                reserve(16);
+                buffer.putLong(rows.seed(i));
+                buffer.putLong(rows.value(i));
+            }
+        }
+    }
+
+    //Columnar file of row groups, one per block, all integers little-endian:
+    //
+    //  header  "CLZC", int32 version
+    //  group   int32 rows, int32 seed bytes, int32 value bytes,
+    //          seed column: the first seed and then the gaps to the previous
+    //          seed, as unsigned LEB128 varints,
+    //          value column: every value as an unsigned LEB128 varint
+    //  footer  int32 0, int64 total rows
+    //
+    //Consecutive seeds take a byte each and lengths two, against sixteen
+    //bytes a row in the bin format, and a reader can skip whole groups.
+    static class ColumnarWriter extends RowWriter {
+        static final byte[] MAGIC = {'C', 'L', 'Z', 'C'};
+        static final int VERSION = 1;
+
+        private ByteBuffer seeds = ByteBuffer.allocate(CollatzCli.BLOCK_SIZE);
+        private ByteBuffer values = ByteBuffer.allocate(CollatzCli.BLOCK_SIZE * 2);
+        private long totalRows;
+
+        ColumnarWriter(FileChannel channel) {
+            super(channel);
+            buffer.put(MAGIC).putInt(VERSION);
+        }
+
+        @Override
+        void write(TwinResults rows) throws IOException {
+            if (rows.size() == 0) {
+                return;
+            }
+            seeds.clear();
+            values.clear();
+            long previous = 0;
+            for (int i = 0; i < rows.size(); i++) {
+                seeds = putVarint(seeds, rows.seed(i) - previous);
+                previous = rows.seed(i);
+                values = putVarint(values, rows.value(i));
+            }
+            seeds.flip();
+            values.flip();
+            reserve(12);
+            buffer.putInt(rows.size()).putInt(seeds.remaining()).putInt(values.remaining());
+            put(seeds);
+            put(values);
+            totalRows += rows.size();
+        }
+
+        private void put(ByteBuffer column) throws IOException {
+            while (column.hasRemaining()) {
+                reserve(1);
+                int length = Math.min(column.remaining(), buffer.remaining());
+                ByteBuffer slice = column.duplicate();
+                slice.limit(slice.position() + length);
+                buffer.put(slice);
+                column.position(column.position() + length);
+            }
+        }
+
+        private static ByteBuffer putVarint(ByteBuffer column, long value) {
+            if (column.remaining() < 10) {
+                ByteBuffer grown = ByteBuffer.allocate(column.capacity() * 2);
+                column.flip();
+                column = grown.put(column);
+            }
+            while ((value & ~0x7FL) != 0) {
+                column.put((byte) (value & 0x7F | 0x80));
+                value >>>= 7;
+            }
+            return column.put((byte) value);
+        }
+
+        @Override
+        public void close() throws IOException {
+            reserve(12);
+            buffer.putInt(0).putLong(totalRows);
+            super.close();
+        }
+    }
+}
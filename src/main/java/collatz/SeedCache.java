@@ -0,0 +1,247 @@
+package collatz;
+
+import java.math.BigInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+//A bounded, thread-safe cache of sequence lengths and peaks for arbitrary
+//seeds, keyed on primitive longs.
+//
+//The cache is set associative: a seed hashes to a set of WAYS slots and a
+//full set evicts with CLOCK, sweeping a per-set hand past slots whose
+//reference bit is set and clearing them on the way. Sets are striped over
+//StampedLocks, so lookups are optimistic reads that only take the lock when
+//they race with a write.
+//
+//Queries walk the trajectory and stop at the first value that is cached, or
+//at the first value below a shared dense table, and then cache the seed. A
+//trajectory that leaves the range of long type is finished by WideTrajectory
+//and cached with the peak WIDE_PEAK.
+class SeedCache {
+
+    static final int WAYS = 8;
+    static final int SEGMENTS = 64;
+
+    //Key, length, peak and reference bit of a slot, rounded up
+    static final int ENTRY_BYTES = 24;
+
+    //Values below this bound are answered by the dense tables
+    static final int DENSE_BOUND = 1 << 20;
+
+    //Peak of a seed whose peak does not fit into a long
+    static final long WIDE_PEAK = -1;
+
+    private final int setMask;
+    private final int setShift;
+    private final long[] keys;
+    private final int[] lengths;
+    private final long[] peaks;
+    private final byte[] referenced;
+    private final byte[] hands;
+    private final StampedLock[] locks;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder joins = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private SeedCache(int sets) {
+        int slots = sets * WAYS;
+        this.setMask = sets - 1;
+        this.setShift = 64 - Integer.numberOfTrailingZeros(sets);
+        this.keys = new long[slots];
+        this.lengths = new int[slots];
+        this.peaks = new long[slots];
+        this.referenced = new byte[slots];
+        this.hands = new byte[sets];
+        this.locks = new StampedLock[Math.min(SEGMENTS, sets)];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new StampedLock();
+        }
+    }
+
+    //Creates a cache holding as many entries as fit into the given number of
+    //bytes, rounded down to a power of two sets
+    static SeedCache withMemoryBudget(long bytes) {
+        long entries = bytes / ENTRY_BYTES;
+        if (entries < WAYS || entries / WAYS > 1 << 30) {
+            throw new IllegalArgumentException("Memory budget out of range!");
+        }
+        return new SeedCache(Integer.highestOneBit((int) (entries / WAYS)));
+    }
+
+    int capacity() {
+        return keys.length;
+    }
+
+    //Queries whose seed was cached
+    long hits() {
+        return hits.sum();
+    }
+
+    //Queries whose trajectory reached a cached value
+    long joins() {
+        return joins.sum();
+    }
+
+    //Queries that had to walk down to the dense tables
+    long misses() {
+        return misses.sum();
+    }
+
+    long evictions() {
+        return evictions.sum();
+    }
+
+    double hitRatio() {
+        long total = hits() + joins() + misses();
+        return total == 0 ? 0 : (double) (hits() + joins()) / total;
+    }
+
+    int lengthOf(final long n) {
+        long[] result = new long[2];
+        query(n, result);
+        return (int) result[0];
+    }
+
+    //Throws ArithmeticException for the seeds whose peak does not fit into
+    //a long, like TrajectoryStats.peak()
+    long peakOf(final long n) {
+        long peak = peakOrWide(n);
+        if (peak == WIDE_PEAK) {
+            throw new ArithmeticException("Peak of " + n + " does not fit into a long!");
+        }
+        return peak;
+    }
+
+    //The peak of n, or WIDE_PEAK when it does not fit into a long
+    long peakOrWide(final long n) {
+        long[] result = new long[2];
+        query(n, result);
+        return result[1];
+    }
+
+    //Writes the length and peak of the sequence of n into result, the peak
+    //being WIDE_PEAK when it does not fit into a long
+    void query(final long n, long[] result) {
+        //Check for values lesser than 1
+        if (n < 1) {
+            throw new IllegalArgumentException("Input value out of range!");
+        }
+        if (n < DENSE_BOUND) {
+            result[0] = Dense.LENGTHS[(int) n];
+            result[1] = Dense.PEAKS[(int) n];
+            return;
+        }
+        if (lookup(n, result)) {
+            hits.increment();
+            return;
+        }
+
+        long currentN = n;
+        long peak = n;
+        int steps = 0;
+        boolean joined = false;
+        while (true) {
+            if (currentN % 2 == 0) currentN /= 2;
+            else if (currentN > WideTrajectory.STEP_LIMIT) {
+                //The next value does not fit into a long
+                result[0] = WideTrajectory.lengthOf(BigInteger.valueOf(currentN));
+                result[1] = WIDE_PEAK;
+                break;
+            } else currentN = currentN * 3 + 1;
+            steps++;
+            if (currentN > peak) peak = currentN;
+            if (currentN < DENSE_BOUND) {
+                result[0] = Dense.LENGTHS[(int) currentN];
+                result[1] = Dense.PEAKS[(int) currentN];
+                break;
+            }
+            if (lookup(currentN, result)) {
+                joined = true;
+                break;
+            }
+        }
+        result[0] += steps;
+        if (result[1] != WIDE_PEAK) {
+            result[1] = Math.max(result[1], peak);
+        }
+        (joined ? joins : misses).increment();
+        put(n, (int) result[0], result[1]);
+    }
+
+    private int setOf(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> setShift) & setMask;
+    }
+
+    private boolean lookup(long key, long[] result) {
+        int set = setOf(key);
+        StampedLock lock = locks[set & (locks.length - 1)];
+        long stamp = lock.tryOptimisticRead();
+        int slot = find(set, key, result);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                slot = find(set, key, result);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        if (slot < 0) {
+            return false;
+        }
+        //A lost update of the reference bit only costs eviction accuracy
+        referenced[slot] = 1;
+        return true;
+    }
+
+    private int find(int set, long key, long[] result) {
+        int base = set * WAYS;
+        for (int slot = base; slot < base + WAYS; slot++) {
+            if (keys[slot] == key) {
+                result[0] = lengths[slot];
+                result[1] = peaks[slot];
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private void put(long key, int length, long peak) {
+        int set = setOf(key);
+        int base = set * WAYS;
+        StampedLock lock = locks[set & (locks.length - 1)];
+        long stamp = lock.writeLock();
+        try {
+            int slot = -1;
+            for (int i = base; i < base + WAYS; i++) {
+                if (keys[i] == key || keys[i] == 0) {
+                    slot = i;
+                    break;
+                }
+            }
+            if (slot < 0) {
+                int hand = hands[set];
+                while (referenced[base + hand] != 0) {
+                    referenced[base + hand] = 0;
+                    hand = (hand + 1) % WAYS;
+                }
+                slot = base + hand;
+                hands[set] = (byte) ((hand + 1) % WAYS);
+                evictions.increment();
+            }
+            keys[slot] = key;
+            lengths[slot] = length;
+            peaks[slot] = peak;
+            referenced[slot] = 0;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    //Shared tables for the values below DENSE_BOUND, built on first use
+    private static class Dense {
+        static final int[] LENGTHS = Collatz.memoizedComputeSequenceLengths(DENSE_BOUND - 1);
+        static final long[] PEAKS = Collatz.memoizedComputePeakValues(DENSE_BOUND - 1);
+    }
+}
@@ -0,0 +1,253 @@
+package collatz;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+//Runs a RangeJob on worker processes instead of a local pool. Workers
+//connect to a loopback port, see ShardWorker, and every connection pulls
+//one unit at a time, so faster workers simply take more of the range.
+//
+//Protocol, all integers big-endian as written by DataOutputStream:
+//
+//  on connect    coordinator sends the header of the job, see RangeJob
+//  REQUEST       worker asks for a unit
+//  UNIT unit     coordinator hands out a unit
+//  DONE          coordinator has no more work, the connection ends
+//  RESULT record worker returns a unit, record as in the checkpoint
+//  FAILED unit message
+//                worker could not compute the unit
+//
+//A unit that fails, or whose connection is lost, goes back to the front of
+//the queue until it has failed MAX_ATTEMPTS times, which fails the job.
+//Once the queue is empty, idle connections steal the oldest unit still in
+//flight on a single connection and compute it again, so a slow or stuck
+//worker cannot hold up the end of the job. The first result of a unit is
+//merged and later ones are dropped.
+//
+//Every unit covers the seed after its last one when it needs to, as the
+//twin jobs do, so results that span unit borders are merged like any other.
+//Workers may join at any time, and the job waits for new ones if all of
+//them are gone.
+class ShardCoordinator<R> implements AutoCloseable {
+
+    static final int REQUEST = 1;
+    static final int UNIT = 2;
+    static final int DONE = 3;
+    static final int RESULT = 4;
+    static final int FAILED = 5;
+
+    static final int MAX_ATTEMPTS = 3;
+
+    private final RangeJob<R> job;
+    private final byte[] header;
+    private final ServerSocket server;
+    private final Set<Socket> connections = new HashSet<>();
+
+    private final ArrayDeque<Long> pending = new ArrayDeque<>();
+    //Connections computing each unit, in the order the units went out
+    private final Map<Long, Integer> inFlight = new LinkedHashMap<>();
+    private final Map<Long, Integer> attempts = new HashMap<>();
+    private final BitSet done = new BitSet();
+    private long unitsDone;
+    private long retries;
+    private long steals;
+    private IOException failure;
+
+    //Listens on the given loopback port, 0 picks a free one
+    ShardCoordinator(RangeJob<R> job, int port) throws IOException {
+        this.job = job;
+        this.header = job.header();
+        this.server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        for (long unit = 0; unit < job.totalUnits(); unit++) {
+            pending.add(unit);
+        }
+    }
+
+    int port() {
+        return server.getLocalPort();
+    }
+
+    //Units handed out again after a failure or a lost connection
+    synchronized long retries() {
+        return retries;
+    }
+
+    //Units handed out a second time while still in flight
+    synchronized long steals() {
+        return steals;
+    }
+
+    //Serves workers until every unit is merged and returns the result
+    R run() throws IOException {
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            executor.submit(() -> acceptConnections(executor));
+            synchronized (this) {
+                while (failure == null && unitsDone < job.totalUnits()) {
+                    wait();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for workers!");
+        } finally {
+            //Also ends the connections still computing stolen units
+            close();
+            executor.shutdown();
+        }
+        synchronized (this) {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+        return job.result();
+    }
+
+    private void acceptConnections(ExecutorService executor) {
+        try {
+            while (true) {
+                Socket socket = server.accept();
+                synchronized (connections) {
+                    if (server.isClosed()) {
+                        socket.close();
+                        return;
+                    }
+                    connections.add(socket);
+                    executor.submit(() -> serve(socket));
+                }
+            }
+        } catch (IOException e) {
+            //The server socket was closed
+        }
+    }
+
+    private void serve(Socket socket) {
+        long unit = -1;
+        try (socket) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            out.write(header);
+            out.flush();
+            while (true) {
+                int message = in.read();
+                if (message == REQUEST && unit < 0) {
+                    unit = nextUnit();
+                    if (unit < 0) {
+                        out.writeByte(DONE);
+                        out.flush();
+                        return;
+                    }
+                    out.writeByte(UNIT);
+                    out.writeLong(unit);
+                    out.flush();
+                } else if (message == RESULT && unit >= 0) {
+                    checkUnit(in.readLong(), unit);
+                    long[] payload = RangeJob.readPayload(in, job.maxPayloadLength());
+                    complete(unit, payload);
+                    unit = -1;
+                } else if (message == FAILED && unit >= 0) {
+                    checkUnit(in.readLong(), unit);
+                    failed(unit, in.readUTF());
+                    unit = -1;
+                } else if (message == -1) {
+                    throw new IOException("Connection closed");
+                } else {
+                    throw new IOException("Unexpected message " + message);
+                }
+            }
+        } catch (IOException e) {
+            if (unit >= 0) {
+                failed(unit, "Worker lost: " + e.getMessage());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            synchronized (connections) {
+                connections.remove(socket);
+            }
+        }
+    }
+
+    private static void checkUnit(long actual, long expected) throws IOException {
+        if (actual != expected) {
+            throw new IOException("Unit " + actual + " was not handed out!");
+        }
+    }
+
+    //The next unit for a connection, -1 once the job is over
+    private synchronized long nextUnit() throws InterruptedException {
+        while (failure == null && unitsDone < job.totalUnits()) {
+            Long unit = pending.poll();
+            if (unit != null) {
+                inFlight.merge(unit, 1, Integer::sum);
+                return unit;
+            }
+            for (Map.Entry<Long, Integer> entry : inFlight.entrySet()) {
+                if (entry.getValue() == 1) {
+                    entry.setValue(2);
+                    steals++;
+                    return entry.getKey();
+                }
+            }
+            wait();
+        }
+        return -1;
+    }
+
+    private synchronized void complete(long unit, long[] payload) {
+        release(unit);
+        if (!done.get((int) unit)) {
+            done.set((int) unit);
+            job.acceptRemote(unit, payload);
+            unitsDone++;
+        }
+        notifyAll();
+    }
+
+    private synchronized void failed(long unit, String message) {
+        release(unit);
+        //Another connection may still finish the unit
+        if (!done.get((int) unit) && !inFlight.containsKey(unit)) {
+            int attempt = attempts.merge(unit, 1, Integer::sum);
+            if (attempt >= MAX_ATTEMPTS) {
+                if (failure == null) {
+                    failure = new IOException("Unit " + unit + " failed " + attempt + " times: " + message);
+                }
+            } else {
+                pending.addFirst(unit);
+                retries++;
+            }
+        }
+        notifyAll();
+    }
+
+    private void release(long unit) {
+        inFlight.computeIfPresent(unit, (key, count) -> count == 1 ? null : count - 1);
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (connections) {
+            server.close();
+            for (Socket socket : connections) {
+                socket.close();
+            }
+        }
+    }
+}
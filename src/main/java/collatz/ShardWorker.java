@@ -0,0 +1,100 @@
+package collatz;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.List;
+
+//Worker process of a ShardCoordinator:
+//
+//  java collatz.ShardWorker <port> [connections]
+//
+//Opens the given number of connections to the coordinator on the loopback
+//port, one per core by default, and computes units on each of them until
+//the coordinator is done or goes away. The job is rebuilt from the header
+//the coordinator sends, so a worker needs nothing but the port.
+class ShardWorker {
+
+    private ShardWorker() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("usage: ShardWorker <port> [connections]");
+            System.exit(2);
+        }
+        int port = Integer.parseInt(args[0]);
+        int connections = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < connections; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    work(port);
+                } catch (IOException e) {
+                    System.err.println(e.getMessage());
+                }
+            }, "shard-worker-" + i);
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    //Computes units over one connection and returns the number of units
+    //computed. A connection lost while working ends it quietly, the
+    //coordinator hands the unit to someone else.
+    static long work(int port) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            return work(socket);
+        }
+    }
+
+    private static long work(Socket socket) throws IOException {
+        long units = 0;
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            RangeJob<?> job = RangeJob.readHeader(in);
+            while (true) {
+                out.writeByte(ShardCoordinator.REQUEST);
+                out.flush();
+                int message = in.read();
+                if (message == ShardCoordinator.DONE || message == -1) {
+                    return units;
+                } else if (message != ShardCoordinator.UNIT) {
+                    throw new IOException("Unexpected message " + message);
+                }
+                long unit = in.readLong();
+                if (unit < 0 || unit >= job.totalUnits()) {
+                    throw new IOException("Unit " + unit + " out of range!");
+                }
+
+                long[] payload;
+                long start = Metrics.start();
+                try {
+                    payload = job.computeUnit(job.unitLo(unit), job.unitHi(unit));
+                } catch (RuntimeException e) {
+                    out.writeByte(ShardCoordinator.FAILED);
+                    out.writeLong(unit);
+                    out.writeUTF(String.valueOf(e.getMessage()));
+                    continue;
+                }
+                Metrics.rangeUnit(start);
+                out.writeByte(ShardCoordinator.RESULT);
+                RangeJob.writeRecord(out, unit, payload);
+                units++;
+            }
+        } catch (SocketException | EOFException e) {
+            return units;
+        }
+    }
+}
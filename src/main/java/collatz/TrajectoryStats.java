@@ -0,0 +1,139 @@
+package collatz;
+
+import java.math.BigInteger;
+
+//Statistics of one trajectory gathered in a single pass. An instance can be
+//reused for many seeds through walk, which allocates nothing unless the
+//trajectory leaves the range of long type. That part of the walk is
+//stepped in a BigInteger until the value fits into a long again.
+public class TrajectoryStats {
+
+    //Every seed up to this bound has a peak within long type, 8528817511 is
+    //the first whose trajectory climbs past Long.MAX_VALUE
+    static final long LONG_PEAK_BOUND = 8528817510L;
+
+    private static final BigInteger THREE = BigInteger.valueOf(3);
+
+    private long seed;
+    private int steps;
+    private int oddSteps;
+    private long peak;
+    private BigInteger widePeak;
+    private int peakStep;
+    private int stoppingTime;
+
+    public static TrajectoryStats of(long n) {
+        return new TrajectoryStats().walk(n);
+    }
+
+    public TrajectoryStats walk(final long n) {
+        //Check for values lesser than 1
+        if (n < 1) {
+            throw new IllegalArgumentException("Input value out of range!");
+        }
+
+        long currentN = n;
+        seed = n;
+        steps = 0;
+        oddSteps = 0;
+        peak = n;
+        widePeak = null;
+        peakStep = 0;
+        stoppingTime = 0;
+        while (currentN > 1) {
+            if (currentN % 2 == 0) {
+                currentN /= 2;
+            } else if (currentN > WideTrajectory.STEP_LIMIT) {
+                currentN = walkWide(currentN);
+                continue;
+            } else {
+                oddSteps++;
+                currentN = currentN * 3 + 1;
+            }
+            steps++;
+            //Once the peak is wide no long value can beat it
+            if (currentN > peak && widePeak == null) {
+                peak = currentN;
+                peakStep = steps;
+            }
+            if (stoppingTime == 0 && currentN < n) {
+                stoppingTime = steps;
+            }
+        }
+        return this;
+    }
+
+    //Steps through the part of the trajectory above long type, starting at
+    //an odd value whose next value overflows, and returns the first value
+    //that fits into a long again. Only that last value can be below the seed.
+    private long walkWide(final long n) {
+        BigInteger currentN = BigInteger.valueOf(n);
+        do {
+            if (currentN.testBit(0)) {
+                oddSteps++;
+                currentN = currentN.multiply(THREE).add(BigInteger.ONE);
+            } else {
+                currentN = currentN.shiftRight(1);
+            }
+            steps++;
+            if (widePeak == null || currentN.compareTo(widePeak) > 0) {
+                widePeak = currentN;
+                peakStep = steps;
+            }
+        } while (currentN.bitLength() > 63);
+        if (stoppingTime == 0 && currentN.longValue() < seed) {
+            stoppingTime = steps;
+        }
+        return currentN.longValue();
+    }
+
+    public long seed() {
+        return seed;
+    }
+
+    //Number of values in the sequence, counting the seed and the final 1
+    public int length() {
+        return steps + 1;
+    }
+
+    public int steps() {
+        return steps;
+    }
+
+    public int oddSteps() {
+        return oddSteps;
+    }
+
+    public int evenSteps() {
+        return steps - oddSteps;
+    }
+
+    //Highest value of the sequence, for peaks within long type. Seeds up to
+    //LONG_PEAK_BOUND always qualify, widePeak holds the peak of any seed.
+    public long peak() {
+        if (widePeak != null) {
+            throw new ArithmeticException("Peak of " + seed + " does not fit into a long!");
+        }
+        return peak;
+    }
+
+    public BigInteger widePeak() {
+        return widePeak != null ? widePeak : BigInteger.valueOf(peak);
+    }
+
+    //Step at which the peak is first reached, 0 if the seed is the peak
+    public int peakStep() {
+        return peakStep;
+    }
+
+    //Step at which the sequence first drops below the seed, 0 for the seed 1
+    public int stoppingTime() {
+        return stoppingTime;
+    }
+
+    @Override
+    public String toString() {
+        return "(" + seed + ": steps " + steps + ", odd " + oddSteps + ", even " + evenSteps()
+                + ", peak " + widePeak() + " at " + peakStep + ", stopping time " + stoppingTime + ")";
+    }
+}
@@ -0,0 +1,38 @@
+package collatz;
+
+//A single twin query result: a seed and the value it shares with seed + 1
+public final class Twin {
+    private final long seed;
+    private final long value;
+
+    public Twin(long seed, long value) {
+        this.seed = seed;
+        this.value = value;
+    }
+
+    public long seed() {
+        return seed;
+    }
+
+    public long value() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return "(" + seed + ", " + value + ")";
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        else if (!(obj instanceof Twin)) return false;
+        return this.seed == ((Twin) obj).seed
+                && this.value == ((Twin) obj).value;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(seed) + Long.hashCode(value);
+    }
+}
@@ -0,0 +1,138 @@
+package collatz;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+//Twin query results stored column by column in two growable primitive
+//arrays, 16 bytes per result and no object per entry.
+public final class TwinResults {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] seeds;
+    private long[] values;
+    private int size;
+
+    public TwinResults() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public TwinResults(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity needs to be positive!");
+        }
+        seeds = new long[capacity];
+        values = new long[capacity];
+    }
+
+    public void add(long seed, long value) {
+        if (size == seeds.length) {
+            int capacity = Math.max(INITIAL_CAPACITY, seeds.length + (seeds.length >> 1));
+            seeds = Arrays.copyOf(seeds, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        seeds[size] = seed;
+        values[size] = value;
+        size++;
+    }
+
+    public void addAll(TwinResults other) {
+        for (int i = 0; i < other.size; i++) {
+            add(other.seeds[i], other.values[i]);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long seed(int index) {
+        checkIndex(index);
+        return seeds[index];
+    }
+
+    public long value(int index) {
+        checkIndex(index);
+        return values[index];
+    }
+
+    public Twin get(int index) {
+        checkIndex(index);
+        return new Twin(seeds[index], values[index]);
+    }
+
+    public boolean contains(long seed, long value) {
+        for (int i = 0; i < size; i++) {
+            if (seeds[i] == seed && values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //Boxed views for callers of the List<Pair> based queries
+    public List<Pair<Long, Long>> asPairs() {
+        return new AbstractList<Pair<Long, Long>>() {
+            @Override
+            public Pair<Long, Long> get(int index) {
+                return new Pair<>(seed(index), value(index));
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    public List<Pair<Long, Integer>> asLengthPairs() {
+        return new AbstractList<Pair<Long, Integer>>() {
+            @Override
+            public Pair<Long, Integer> get(int index) {
+                return new Pair<>(seed(index), (int) value(index));
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of range!");
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) result.append(", ");
+            result.append('(').append(seeds[i]).append(", ").append(values[i]).append(')');
+        }
+        return result.append(']').toString();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        else if (!(obj instanceof TwinResults)) return false;
+        TwinResults other = (TwinResults) obj;
+        if (size != other.size) return false;
+        for (int i = 0; i < size; i++) {
+            if (seeds[i] != other.seeds[i] || values[i] != other.values[i]) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0; i < size; i++) {
+            hash = 31 * (31 * hash + Long.hashCode(seeds[i])) + Long.hashCode(values[i]);
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,132 @@
+package collatz;
+
+import java.math.BigInteger;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.LongUnaryOperator;
+
+//Lazily yields a Twin for every seed i in [lo, hi] whose sequence shares a
+//value with the sequence of i + 1. Values are computed per seed into a
+//sliding window of WINDOW entries, so memory stays bounded however large the
+//range is, and splitting hands half of the remaining range to another
+//spliterator.
+class TwinSpliterator implements Spliterator<Twin> {
+
+    static final int WINDOW = 1 << 12;
+
+    //Seeds below this bound take their peak from a shared memo table
+    static final int PEAK_MEMO_BOUND = 1 << 20;
+
+    //Window entry of a seed whose peak does not fit into a long
+    static final long WIDE_PEAK = -1;
+
+    private final LongUnaryOperator value;
+    private long next;
+    private final long end;
+    private final long[] window = new long[WINDOW + 1];
+    private long windowStart;
+    private int windowLength;
+
+    private TwinSpliterator(LongUnaryOperator value, long next, long end) {
+        this.value = value;
+        this.next = next;
+        this.end = end;
+    }
+
+    static TwinSpliterator equalLengthTwins(final long lo, final long hi) {
+        checkRange(lo, hi);
+        return new TwinSpliterator(Kernels.JUMPS::lengthOf, lo, hi);
+    }
+
+    static TwinSpliterator equalMaxValueTwins(final long lo, final long hi) {
+        checkRange(lo, hi);
+        return new TwinSpliterator(TwinSpliterator::peakOf, lo, hi);
+    }
+
+    private static void checkRange(final long lo, final long hi) {
+        //Make sure lo is actually lower than hi
+        if (lo > hi) {
+            throw new IllegalArgumentException("Incorrect input order!");
+        }
+        if (lo < 1 || hi >= WideTrajectory.STEP_LIMIT) {
+            throw new IllegalArgumentException("Input value out of range!");
+        }
+    }
+
+    //Walks n until it drops below the memo bound and takes the rest of the
+    //peak from the memo, or returns WIDE_PEAK once the walk leaves long type
+    static long peakOf(final long n) {
+        long[] peaks = Kernels.PEAKS;
+        long currentN = n;
+        long peak = n;
+        while (currentN >= peaks.length) {
+            if (currentN % 2 == 0) currentN /= 2;
+            else if (currentN > WideTrajectory.STEP_LIMIT) {
+                return WIDE_PEAK;
+            } else currentN = currentN * 3 + 1;
+            if (currentN > peak) peak = currentN;
+        }
+        return Math.max(peak, peaks[(int) currentN]);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Twin> action) {
+        while (next <= end) {
+            long seed = next++;
+            long value = valueOf(seed);
+            if (value == valueOf(seed + 1)) {
+                if (value == WIDE_PEAK) {
+                    //Both peaks are past long type, compare them exactly
+                    BigInteger peak = WideTrajectory.peakOf(BigInteger.valueOf(seed));
+                    if (!peak.equals(WideTrajectory.peakOf(BigInteger.valueOf(seed + 1)))) {
+                        continue;
+                    }
+                    throw new ArithmeticException("Peak of " + seed + " does not fit into a long!");
+                }
+                action.accept(new Twin(seed, value));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long valueOf(long seed) {
+        if (seed < windowStart || seed - windowStart >= windowLength) {
+            windowStart = seed;
+            windowLength = (int) Math.min(WINDOW + 1, end + 2 - seed);
+            for (int i = 0; i < windowLength; i++) {
+                window[i] = value.applyAsLong(seed + i);
+            }
+        }
+        return window[(int) (seed - windowStart)];
+    }
+
+    @Override
+    public Spliterator<Twin> trySplit() {
+        long remaining = end - next + 1;
+        if (remaining < 2 * WINDOW) {
+            return null;
+        }
+        long mid = next + remaining / 2;
+        TwinSpliterator prefix = new TwinSpliterator(value, next, mid - 1);
+        next = mid;
+        windowLength = 0;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return end - next + 1;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | DISTINCT | NONNULL | IMMUTABLE;
+    }
+
+    //Shared tables, built on first use
+    private static class Kernels {
+        static final JumpTable JUMPS = JumpTable.of(16);
+        static final long[] PEAKS = Collatz.memoizedComputePeakValues(PEAK_MEMO_BOUND - 1);
+    }
+}
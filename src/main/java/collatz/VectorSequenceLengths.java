@@ -0,0 +1,117 @@
+package collatz;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+//Fills a sequence length table by stepping a lane-width batch of seeds in
+//lockstep with the Vector API.
+//
+//The table is filled in chunks [lo, 2 * lo). Every seed of a chunk is walked
+//until it drops below lo, where the finished prefix of the table answers the
+//rest, so the lanes never wait on each other. A lane that retires is
+//refilled with the next seed of the chunk right away. Odd and even steps are
+//computed for all lanes and blended by the odd mask, and a lane whose odd
+//value would overflow is finished by WideTrajectory on the scalar side.
+//
+//Needs --add-modules jdk.incubator.vector, see Collatz.vectorComputeSequenceLengths
+//for the scalar fallback.
+final class VectorSequenceLengths {
+
+    static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+    static final int LANES = SPECIES.length();
+
+    //Seeds computed by the scalar memoized kernel before the chunks start
+    static final int SCALAR_PREFIX = 1 << 10;
+
+    private VectorSequenceLengths() {
+    }
+
+    static int[] compute(final long n) {
+        int[] sequenceLengths = new int[((int) n) + 1];
+        int prefix = (int) Math.min(n, SCALAR_PREFIX);
+        System.arraycopy(Collatz.memoizedComputeSequenceLengths(prefix), 0, sequenceLengths, 0, prefix + 1);
+        long steps = 0;
+        for (long lo = prefix + 1; lo <= n; lo *= 2) {
+            steps += fillChunk(sequenceLengths, (int) lo, (int) Math.min(n, 2 * lo - 1));
+        }
+        Metrics.kernel(n - prefix, steps, n - prefix);
+        return sequenceLengths;
+    }
+
+    //Fills the entries of seeds lo to hi, given all entries below lo, and
+    //returns the number of steps walked
+    static long fillChunk(int[] sequenceLengths, final int lo, final int hi) {
+        long[] values = new long[LANES];
+        long[] counts = new long[LANES];
+        int[] seeds = new int[LANES];
+        boolean[] busy = new boolean[LANES];
+        int next = lo;
+        int active = 0;
+        for (int lane = 0; lane < LANES && next <= hi; lane++) {
+            seeds[lane] = next;
+            values[lane] = next++;
+            busy[lane] = true;
+            active++;
+        }
+
+        long steps = 0;
+        LongVector value = LongVector.fromArray(SPECIES, values, 0);
+        LongVector count = LongVector.zero(SPECIES);
+        VectorMask<Long> occupied = VectorMask.fromArray(SPECIES, busy, 0);
+        VectorMask<Long> live = occupied;
+        while (active > 0) {
+            VectorMask<Long> odd = value.and(1L).compare(VectorOperators.NE, 0L);
+            VectorMask<Long> overflow = odd.and(value.compare(VectorOperators.GT, WideTrajectory.STEP_LIMIT)).and(live);
+            VectorMask<Long> retire;
+            if (overflow.anyTrue()) {
+                retire = occupied.andNot(live).or(overflow);
+            } else {
+                //Lanes that dropped below lo hold still until enough of them
+                //are done to be worth a refill
+                LongVector stepped = value.lanewise(VectorOperators.LSHR, 1)
+                        .blend(value.lanewise(VectorOperators.LSHL, 1).add(value).add(1L), odd);
+                value = value.blend(stepped, live);
+                count = count.add(1L, live);
+                live = live.andNot(value.compare(VectorOperators.LT, (long) lo));
+                retire = occupied.andNot(live);
+                int done = retire.trueCount();
+                if (done == 0 || done < (LANES + 1) / 2 && done < active) {
+                    continue;
+                }
+            }
+
+            //Retire the lanes that dropped below lo or are about to overflow,
+            //and refill them with the next seeds
+            value.intoArray(values, 0);
+            count.intoArray(counts, 0);
+            for (int lane = 0; lane < LANES; lane++) {
+                if (!retire.laneIsSet(lane)) {
+                    continue;
+                }
+                if (values[lane] < lo) {
+                    sequenceLengths[seeds[lane]] = (int) counts[lane] + sequenceLengths[(int) values[lane]];
+                } else {
+                    sequenceLengths[seeds[lane]] = (int) counts[lane] + WideTrajectory.lengthOf(values[lane]);
+                }
+                steps += counts[lane];
+                counts[lane] = 0;
+                if (next <= hi) {
+                    seeds[lane] = next;
+                    values[lane] = next++;
+                } else {
+                    //Idle lanes hold 0, which stays 0 and never overflows
+                    values[lane] = 0;
+                    busy[lane] = false;
+                    active--;
+                }
+            }
+            value = LongVector.fromArray(SPECIES, values, 0);
+            count = LongVector.fromArray(SPECIES, counts, 0);
+            occupied = VectorMask.fromArray(SPECIES, busy, 0);
+            live = occupied.and(value.compare(VectorOperators.GE, (long) lo));
+        }
+        return steps;
+    }
+}
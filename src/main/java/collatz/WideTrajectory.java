@@ -0,0 +1,198 @@
+package collatz;
+
+import java.math.BigInteger;
+
+//Walks trajectories that leave the range of long. Values are kept in a long
+//while 3n + 1 cannot overflow, in an unsigned 128 bit pair of longs beyond
+//that and in a BigInteger once 3n + 1 would overflow 128 bits. The walk
+//moves back to the pair as soon as the value drops below 2^126, and back
+//to a long once it is at most STEP_LIMIT.
+//
+//An instance can be reused for many seeds through walk.
+class WideTrajectory {
+
+    //Largest value n for which n * 3 + 1 still fits into a long
+    static final long STEP_LIMIT = (Long.MAX_VALUE - 1) / 3;
+
+    //Largest high word for which 3n + 1 still fits into 128 bits
+    private static final long WIDE_STEP_LIMIT = 0x5555555555555554L;
+
+    private static final BigInteger THREE = BigInteger.valueOf(3);
+
+    private long hi;
+    private long lo;
+    private BigInteger big;
+    private int steps;
+
+    private long peakHi;
+    private long peakLo;
+    private BigInteger peakBig;
+
+    static int lengthOf(final long n) {
+        return new WideTrajectory().walk(n).length();
+    }
+
+    static int lengthOf(BigInteger n) {
+        return new WideTrajectory().walk(n).length();
+    }
+
+    static BigInteger peakOf(BigInteger n) {
+        return new WideTrajectory().walk(n).peak();
+    }
+
+    WideTrajectory walk(final long n) {
+        if (n < 1) {
+            throw new IllegalArgumentException("Input value out of range!");
+        }
+        reset();
+        hi = 0;
+        lo = n;
+        peakLo = n;
+        run(0);
+        return this;
+    }
+
+    WideTrajectory walk(BigInteger n) {
+        if (n.signum() < 1) {
+            throw new IllegalArgumentException("Input value out of range!");
+        }
+        reset();
+        if (n.bitLength() > 128) {
+            big = n;
+            peakBig = n;
+            run(2);
+        } else {
+            hi = n.shiftRight(64).longValue();
+            lo = n.longValue();
+            peakHi = hi;
+            peakLo = lo;
+            run(hi == 0 && lo > 0 ? 0 : 1);
+        }
+        return this;
+    }
+
+    int length() {
+        return steps + 1;
+    }
+
+    BigInteger peak() {
+        if (peakBig != null) {
+            return peakBig;
+        }
+        return toBigInteger(peakHi, peakLo);
+    }
+
+    private static BigInteger toBigInteger(long hi, long lo) {
+        byte[] bytes = new byte[17];
+        for (int i = 0; i < 8; i++) {
+            bytes[16 - i] = (byte) (lo >>> (8 * i));
+            bytes[8 - i] = (byte) (hi >>> (8 * i));
+        }
+        return new BigInteger(bytes);
+    }
+
+    private void reset() {
+        big = null;
+        peakBig = null;
+        peakHi = 0;
+        peakLo = 0;
+        steps = 0;
+    }
+
+    //Runs the walk starting in the given representation: 0 for long, 1 for
+    //the 128 bit pair and 2 for BigInteger.
+    private void run(int width) {
+        while (true) {
+            if (width == 0) {
+                if (walkLong()) return;
+                width = 1;
+            } else if (width == 1) {
+                width = walkPair() ? 0 : 2;
+            } else {
+                walkBig();
+                width = 1;
+            }
+        }
+    }
+
+    //Steps in a long until 1 is reached, returning true, or until the next
+    //step would overflow, returning false
+    private boolean walkLong() {
+        long currentN = lo;
+        //Once the walk has been wide every long value is below the peak
+        boolean trackPeak = peakHi == 0 && peakBig == null && peakLo > 0;
+        long peak = peakLo;
+        int count = steps;
+        boolean done = true;
+        while (currentN > 1) {
+            if (currentN % 2 == 0) currentN /= 2;
+            else if (currentN > STEP_LIMIT) {
+                done = false;
+                break;
+            } else currentN = currentN * 3 + 1;
+            count++;
+            if (trackPeak && currentN > peak) peak = currentN;
+        }
+        hi = 0;
+        lo = currentN;
+        steps = count;
+        if (trackPeak) peakLo = peak;
+        return done;
+    }
+
+    //Steps in the 128 bit pair until the value is back in the range of the
+    //long walk, returning true, or until the next step would overflow 128
+    //bits, returning false
+    private boolean walkPair() {
+        long h = hi;
+        long l = lo;
+        while (h != 0 || l < 0 || l > STEP_LIMIT) {
+            if ((l & 1) == 0) {
+                l = (l >>> 1) | (h << 63);
+                h >>>= 1;
+            } else {
+                if (Long.compareUnsigned(h, WIDE_STEP_LIMIT) > 0) {
+                    hi = h;
+                    lo = l;
+                    big = toBigInteger(h, l);
+                    if (peakBig == null) {
+                        peakBig = peak();
+                    }
+                    return false;
+                }
+                //3n + 1 as 2n + n + 1 with carries into the high word
+                long h2 = (h << 1) | (l >>> 63);
+                long l2 = l << 1;
+                long l3 = l2 + l;
+                long h3 = h2 + h + (Long.compareUnsigned(l3, l2) < 0 ? 1 : 0);
+                l = l3 + 1;
+                h = l == 0 ? h3 + 1 : h3;
+            }
+            steps++;
+            if (peakBig == null && (Long.compareUnsigned(h, peakHi) > 0
+                    || (h == peakHi && Long.compareUnsigned(l, peakLo) > 0))) {
+                peakHi = h;
+                peakLo = l;
+            }
+        }
+        hi = 0;
+        lo = l;
+        return true;
+    }
+
+    //Steps in a BigInteger until the value is back in the range of the 128
+    //bit walk, which holds for anything below 2^126
+    private void walkBig() {
+        BigInteger currentN = big;
+        while (currentN.bitLength() > 126) {
+            currentN = currentN.testBit(0) ? currentN.multiply(THREE).add(BigInteger.ONE) : currentN.shiftRight(1);
+            steps++;
+            if (currentN.compareTo(peakBig) > 0) {
+                peakBig = currentN;
+            }
+        }
+        hi = currentN.shiftRight(64).longValue();
+        lo = currentN.longValue();
+        big = null;
+    }
+}
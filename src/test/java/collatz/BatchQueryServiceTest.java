@@ -0,0 +1,110 @@
+package collatz;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static collatz.Collatz.*;
+
+public class BatchQueryServiceTest {
+
+    @Test
+    public void batchesShouldMatchSingleSeedQueries() {
+        try (BatchQueryService service = BatchQueryService.create(1 << 20)) {
+            Random random = new Random();
+            long[] seeds = new long[3 * BatchQueryService.BATCH_CHUNK + 17];
+            for (int i = 0; i < seeds.length; i++) {
+                seeds[i] = (random.nextLong() >>> 30) + 1;
+            }
+            int[] lengths = service.lengths(seeds).join();
+            long[] peaks = service.peaks(seeds).join();
+            for (int i = 0; i < seeds.length; i++) {
+                assert lengths[i] == lengthOfSequence(seeds[i]);
+                assert peaks[i] == largestValueInSequence(seeds[i]);
+            }
+            assert service.length(27).join() == 112;
+            assert service.peak(27).join() == 9232;
+            assert service.lengthTwins(1, 10000).join().equals(lengthTwins(1, 10000));
+            assert service.maxValueTwins(1, 10000).join().equals(maxValueTwins(1, 10000));
+        }
+    }
+
+    @Test
+    public void duplicateInFlightQueriesShouldBeCoalesced() throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch release = new CountDownLatch(1);
+        //Hold the only worker so the queries below stay in flight
+        executor.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        try (BatchQueryService service = new BatchQueryService(executor, SeedCache.withMemoryBudget(1 << 16))) {
+            CompletableFuture<TwinResults> first = service.lengthTwins(1, 1000);
+            CompletableFuture<TwinResults> second = service.lengthTwins(1, 1000);
+            CompletableFuture<TwinResults> other = service.lengthTwins(1, 1001);
+            CompletableFuture<Integer> length = service.length(97);
+            assert service.length(97) != length;
+            assert service.coalesced() == 2;
+
+            //Completing one caller's view must not affect the shared computation
+            first.complete(new TwinResults());
+            release.countDown();
+            assert second.join().equals(lengthTwins(1, 1000));
+            assert other.join().equals(lengthTwins(1, 1001));
+            assert length.join() == 119;
+
+            //Finished queries are not coalesced any more
+            service.lengthTwins(1, 1000).join();
+            assert service.coalesced() == 2;
+        }
+    }
+
+    @Test
+    public void batchSeedsInFlightShouldBeCoalesced() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        try (BatchQueryService service = new BatchQueryService(executor, SeedCache.withMemoryBudget(1 << 16))) {
+            //The batches run after the single-seed queries were issued but
+            //before they ran
+            CompletableFuture<int[]> lengths = service.lengths(97, 27, 97);
+            long wide = TrajectoryStats.LONG_PEAK_BOUND + 1;
+            CompletableFuture<long[]> peaks = service.peaks(27, 97, wide);
+            CompletableFuture<Integer> length = service.length(97);
+            CompletableFuture<Long> peak = service.peak(27);
+            CompletableFuture<Long> widePeak = service.peak(wide);
+            release.countDown();
+            assert Arrays.equals(lengths.join(), new int[]{119, 112, 119});
+            //The single peak past long type fails, the batch computes it itself
+            assert Arrays.equals(peaks.join(), new long[]{9232, 9232, SeedCache.WIDE_PEAK});
+            assert length.join() == 119;
+            assert peak.join() == 9232;
+            assert widePeak.handle((value, failure) -> failure != null).join();
+            assert service.coalesced() == 4;
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failedQueriesShouldCompleteExceptionally() throws Throwable {
+        try (BatchQueryService service = BatchQueryService.create(1 << 16)) {
+            service.lengthTwins(10, 1).join();
+        } catch (CompletionException e) {
+            throw e.getCause();
+        }
+    }
+}
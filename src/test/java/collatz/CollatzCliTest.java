@@ -0,0 +1,174 @@
+package collatz;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static collatz.Collatz.*;
+
+public class CollatzCliTest {
+
+    private static final PrintStream NO_ERRORS = new PrintStream(new ByteArrayOutputStream());
+
+    private static ByteBuffer run(String... args) throws IOException {
+        Path out = Files.createTempFile("collatz", ".out");
+        try {
+            String[] withOut = new String[args.length + 2];
+            System.arraycopy(args, 0, withOut, 0, args.length);
+            withOut[args.length] = "--out";
+            withOut[args.length + 1] = out.toString();
+            assert CollatzCli.run(withOut, null, NO_ERRORS) == 0;
+            return ByteBuffer.wrap(Files.readAllBytes(out)).order(ByteOrder.LITTLE_ENDIAN);
+        } finally {
+            Files.delete(out);
+        }
+    }
+
+    private static long varint(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    //Decodes a columnar file back into rows
+    private static TwinResults readColumnar(ByteBuffer buffer) {
+        assert buffer.get() == 'C' && buffer.get() == 'L' && buffer.get() == 'Z' && buffer.get() == 'C';
+        assert buffer.getInt() == RowWriter.ColumnarWriter.VERSION;
+        TwinResults rows = new TwinResults();
+        int groupRows;
+        while ((groupRows = buffer.getInt()) != 0) {
+            int seedBytes = buffer.getInt();
+            int valueBytes = buffer.getInt();
+            ByteBuffer seeds = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+            buffer.position(buffer.position() + seedBytes);
+            ByteBuffer values = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+            buffer.position(buffer.position() + valueBytes);
+            long seed = 0;
+            for (int i = 0; i < groupRows; i++) {
+                seed += varint(seeds);
+                rows.add(seed, varint(values));
+            }
+            assert seeds.position() == seedBytes && values.position() == valueBytes;
+        }
+        assert buffer.getLong() == rows.size();
+        assert !buffer.hasRemaining();
+        return rows;
+    }
+
+    @Test
+    public void binLengthsShouldMatchTable() throws IOException {
+        //Spans two blocks
+        int lo = 1000;
+        int hi = CollatzCli.BLOCK_SIZE + 5000;
+        int[] lengths = memoizedComputeSequenceLengths(hi);
+        ByteBuffer buffer = run("--op", "lengths", "--range", lo + ":" + hi, "--threads", "3",
+                "--format", "bin");
+        assert buffer.remaining() == 16 * (hi - lo + 1);
+        for (int i = lo; i <= hi; i++) {
+            assert buffer.getLong() == i;
+            assert buffer.getLong() == lengths[i];
+        }
+    }
+
+    @Test
+    public void csvPeaksShouldMatchPeaks() throws IOException {
+        ByteBuffer buffer = run("--op", "peaks", "--range", "1:2000");
+        String[] lines = StandardCharsets.US_ASCII.decode(buffer).toString().split("\n");
+        assert lines[0].equals("seed,peak");
+        assert lines.length == 2001;
+        for (int i = 1; i <= 2000; i++) {
+            assert lines[i].equals(i + "," + largestValueInSequence(i));
+        }
+    }
+
+    @Test
+    public void columnarTwinsShouldMatchTwinQueries() throws IOException {
+        int hi = CollatzCli.BLOCK_SIZE + 100000;
+        assert readColumnar(run("--op", "length-twins", "--range", "1:" + hi, "--format", "columnar"))
+                .equals(lengthTwins(1, hi));
+        assert readColumnar(run("--op", "max-value-twins", "--range", "5:" + hi, "--format", "columnar"))
+                .equals(maxValueTwins(5, hi));
+    }
+
+    @Test
+    public void columnarRecordsShouldMatchRecordSearch() throws IOException {
+        TwinResults delays = readColumnar(run("--op", "delay-records", "--range", "1:1000000",
+                "--format", "columnar"));
+        List<Pair<Long, Integer>> expected = delayRecords(1000000);
+        assert delays.asLengthPairs().equals(expected);
+
+        String csv = StandardCharsets.US_ASCII.decode(run("--op", "path-records", "--range", "1:1000000"))
+                .toString();
+        StringBuilder expectedCsv = new StringBuilder("seed,peak\n");
+        for (Pair<Long, ?> record : pathRecords(1000000)) {
+            expectedCsv.append(record.toString().replaceAll("[() ]", "")).append('\n');
+        }
+        assert csv.equals(expectedCsv.toString());
+    }
+
+    @Test
+    public void recordsOfLaterRangesShouldBeatSmallerSeeds() throws IOException {
+        String delays = StandardCharsets.US_ASCII.decode(run("--op", "delay-records", "--range", "1000:2000"))
+                .toString();
+        assert delays.equals("seed,length\n1161,182\n");
+        String paths = StandardCharsets.US_ASCII.decode(run("--op", "path-records", "--range", "1000:5000"))
+                .toString();
+        assert paths.equals("seed,peak\n1819,1276936\n4255,6810136\n4591,8153620\n");
+
+        //Records of 871 and 703, the last ones below 1000
+        assert StandardCharsets.US_ASCII.decode(run("--op", "delay-records", "--range", "1000:2000",
+                "--previous", "179")).toString().equals(delays);
+        assert StandardCharsets.US_ASCII.decode(run("--op", "path-records", "--range", "1000:5000",
+                "--previous", "250504")).toString().equals(paths);
+    }
+
+    @Test
+    public void stdoutShouldStayOpen() throws IOException {
+        Path out = Files.createTempFile("collatz", ".out");
+        try (FileChannel channel = FileChannel.open(out, StandardOpenOption.WRITE)) {
+            assert CollatzCli.run(new String[]{"--op", "lengths", "--range", "1:3"}, channel, NO_ERRORS) == 0;
+            assert channel.isOpen();
+        }
+        assert new String(Files.readAllBytes(out), StandardCharsets.US_ASCII).equals("seed,length\n1,1\n2,2\n3,8\n");
+        Files.delete(out);
+    }
+
+    @Test
+    public void badArgumentsShouldPrintUsage() {
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        PrintStream err = new PrintStream(errors);
+        assert CollatzCli.run(new String[]{"--range", "1:10"}, null, err) == 2;
+        assert CollatzCli.run(new String[]{"--op", "lengths", "--range", "10:1"}, null, err) == 2;
+        assert CollatzCli.run(new String[]{"--op", "squares", "--range", "1:10"}, null, err) == 2;
+        assert CollatzCli.run(new String[]{"--op", "lengths", "--range", "1:10", "--format", "xml"}, null, err) == 2;
+        assert CollatzCli.run(new String[]{"--op", "lengths", "--range"}, null, err) == 2;
+        //Peaks of 8528817511 and later seeds may not fit into a row
+        long bound = TrajectoryStats.LONG_PEAK_BOUND;
+        assert CollatzCli.run(new String[]{"--op", "peaks", "--range", bound + ":" + (bound + 1)}, null, err) == 2;
+        assert CollatzCli.run(new String[]{"--op", "max-value-twins", "--range", "1:" + bound}, null, err) == 2;
+        assert CollatzCli.run(new String[]{"--op", "path-records", "--range", "1:" + (bound + 1)}, null, err) == 2;
+        assert CollatzCli.run(new String[]{"--op", "length-twins", "--range", "1:" + Long.MAX_VALUE}, null, err)
+                == 2;
+        assert CollatzCli.run(new String[]{"--op", "delay-records", "--range", "1:" + Long.MAX_VALUE}, null, err)
+                == 2;
+        assert CollatzCli.run(new String[]{"--op", "lengths", "--range", "1:10", "--previous", "5"}, null, err) == 2;
+        assert CollatzCli.run(new String[]{"--op", "delay-records", "--range", "1:10", "--previous", "-1"}, null, err)
+                == 2;
+        assert errors.toString().contains(CollatzCli.USAGE);
+    }
+}
@@ -3,6 +3,7 @@ package collatz;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -179,6 +180,29 @@ public class CollatzTest {
         }
     }
 
+    @Test
+    public void sequenceIntoBufferShouldMatchList() {
+        long[] buffer = new long[4];
+        List<Long> expected = sequenceOf(27);
+
+        int length = sequenceOf(27, buffer);
+        assert length == expected.size();
+        for (int i = 0; i < buffer.length; i++)
+            assert buffer[i] == expected.get(i);
+
+        buffer = new long[length];
+        assert sequenceOf(27, buffer) == length;
+        for (int i = 0; i < length; i++)
+            assert buffer[i] == expected.get(i);
+    }
+
+    @Test
+    public void forEachInSequenceShouldVisitEveryValue() {
+        List<Long> visited = new ArrayList<>();
+        forEachInSequence(3, visited::add);
+        assert visited.equals(Arrays.asList(3L, 10L, 5L, 16L, 8L, 4L, 2L, 1L));
+    }
+
     @Test
     public void lengthOfSequenceShouldReturnValidLength() {
         Random random = new Random();
@@ -198,7 +222,6 @@ public class CollatzTest {
         Random random = new Random();
         long inputNegative = -(abs(random.nextInt()) + 2);
         long inputZero = 0;
-        long inputLarge = (Long.MAX_VALUE - 1) / 3 + 1;
 
         try {
             int resultNegative = lengthOfSequence(inputNegative);
@@ -214,12 +237,17 @@ public class CollatzTest {
             System.out.println("lengthOfSequence() test passed for input of zero");
         }
 
-        try {
-            int resultLarge = lengthOfSequence(inputLarge);
-            fail("Exception not thrown for large input in lengthOfSequence()!");
-        } catch (Exception e) {
-            System.out.println("lengthOfSequence() test passed for large input");
-        }
+    }
+
+    @Test
+    public void lengthOfSequenceShouldLeaveLongRangeForLargeInput() {
+        //Both trajectories climb past Long.MAX_VALUE
+        long inputLarge = (Long.MAX_VALUE - 1) / 3 + 1;
+        long inputWidePeak = TrajectoryStats.LONG_PEAK_BOUND + 1;
+
+        assert lengthOfSequence(inputLarge) == lengthOfSequence(BigInteger.valueOf(inputLarge));
+        assert lengthOfSequence(inputWidePeak) == 727;
+        assert lengthOfSequence(Long.MAX_VALUE) == lengthOfSequence(BigInteger.valueOf(Long.MAX_VALUE));
     }
 
     @Test
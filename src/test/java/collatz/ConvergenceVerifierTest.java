@@ -0,0 +1,68 @@
+package collatz;
+
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static collatz.Collatz.*;
+
+public class ConvergenceVerifierTest {
+
+    @Test
+    public void sievedResiduesShouldDropWithinSieveSteps() {
+        int bits = 10;
+        long modulus = 1L << bits;
+        ConvergenceVerifier verifier = new ConvergenceVerifier(bits);
+        for (long r = 0; r < modulus; r++) {
+            if (!verifier.sieved(r)) continue;
+            for (long a = 1; a <= 50; a++) {
+                long n = modulus * a + r;
+                long currentN = n;
+                int steps = 0;
+                while (currentN >= n) {
+                    currentN = collatz_1(currentN);
+                    steps++;
+                }
+                assert steps <= 2 * bits;
+            }
+        }
+        //Every even residue drops after one step
+        assert verifier.survivorCount() <= modulus / 2;
+    }
+
+    @Test
+    public void rangesShouldConverge() {
+        assert allConverge(1, 1000);
+        assert allConverge(1, 20000000);
+        assert allConverge(1L << 40, (1L << 40) + 10000000);
+    }
+
+    @Test
+    public void checkpointsShouldIncreaseUpToHi() {
+        long hi = 3L * ConvergenceVerifier.UNIT_SIZE + 12345;
+        AtomicLong last = new AtomicLong();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            long failure = new ConvergenceVerifier(12).verify(1, hi, pool, verified -> {
+                assert verified > last.get();
+                last.set(verified);
+            });
+            assert failure == -1;
+            assert last.get() == hi;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void collatzOfLongTrajectoriesShouldReturnOne() {
+        assert collatz(670617279) == 1;
+        assert collatz(Long.MAX_VALUE) == 1;
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void verifyingZeroShouldThrowException() {
+        allConverge(0, 10);
+    }
+}
@@ -0,0 +1,72 @@
+package collatz;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static collatz.Collatz.*;
+
+public class GrowableLengthTableTest {
+
+    @Test
+    public void extendedTableShouldMatchMemoized() {
+        int length = 3 * GrowableLengthTable.CHUNK_SIZE + 17;
+        int[] memoized = memoizedComputeSequenceLengths(length);
+        GrowableLengthTable table = new GrowableLengthTable();
+        assert table.bound() == 0;
+        long largest = 0;
+        for (long n : new long[]{1, 10, 10, GrowableLengthTable.CHUNK_SIZE, 5, length}) {
+            table.extendTo(n);
+            largest = Math.max(largest, n);
+            assert table.bound() == largest;
+        }
+        assert table.bound() == length;
+        for (int i = 1; i <= length; i++)
+            assert table.get(i) == memoized[i];
+    }
+
+    @Test
+    public void growingTwinQueriesShouldMatchLengthTwins() {
+        GrowableLengthTable table = new GrowableLengthTable();
+        for (long hi = 1000; hi <= 1000000; hi *= 10) {
+            assert lengthTwins(1, hi, table).equals(lengthTwins(1, hi));
+            assert table.bound() == hi + 1;
+        }
+        assert equalLengthTwins(28, 30, table).equals(equalLengthTwins(28, 30));
+    }
+
+    @Test
+    public void readersShouldSeeFilledEntriesWhileGrowing() throws InterruptedException {
+        int length = 4000000;
+        int[] memoized = memoizedComputeSequenceLengths(length);
+        GrowableLengthTable table = new GrowableLengthTable();
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            while (!done.get()) {
+                long bound = table.bound();
+                for (long i = Math.max(1, bound - 1000); i <= bound; i++) {
+                    if (table.get(i) != memoized[(int) i]) {
+                        failure.set("Entry " + i + " read before it was filled");
+                    }
+                }
+            }
+        });
+        reader.start();
+        for (long n = 1000; n <= length; n += 77777) {
+            table.extendTo(n);
+        }
+        table.extendTo(length);
+        done.set(true);
+        reader.join();
+        assert failure.get() == null : failure.get();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void publishedEntriesShouldBeImmutable() {
+        GrowableLengthTable table = new GrowableLengthTable();
+        table.extendTo(10);
+        table.set(5, 1);
+    }
+}
@@ -0,0 +1,52 @@
+package collatz;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static collatz.Collatz.*;
+
+public class JumpTableTest {
+
+    @Test
+    public void jumpLengthsShouldMatchSimpleForEveryWidth() {
+        int length = 100000;
+        int[] simple = simpleComputeSequenceLengths(length);
+        for (int bits = JumpTable.MIN_BITS; bits <= 20; bits++) {
+            JumpTable table = JumpTable.of(bits);
+            int[] jumped = table.computeSequenceLengths(length);
+            for (int i = 1; i <= length; i++) {
+                assert jumped[i] == simple[i];
+                assert table.lengthOf(i) == simple[i];
+            }
+        }
+    }
+
+    @Test
+    public void jumpLengthOfLargeSeedsShouldMatchSequenceLength() {
+        Random random = new Random();
+        JumpTable table = JumpTable.of(16);
+        for (int i = 0; i < 1000; i++) {
+            long seed = (random.nextLong() >>> 24) + 1;
+            assert table.lengthOf(seed) == lengthOfSequence(seed);
+        }
+    }
+
+    @Test
+    public void jumpLengthOfOverflowingSeedsShouldMatchWideLength() {
+        JumpTable table = JumpTable.of(12);
+        for (long seed : new long[]{8528817511L, Long.MAX_VALUE, Long.MAX_VALUE / 3 + 1}) {
+            assert table.lengthOf(seed) == WideTrajectory.lengthOf(seed);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void jumpWidthOutOfRangeShouldThrowException() {
+        JumpTable.of(JumpTable.MAX_BITS + 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void jumpLengthOfZeroShouldThrowException() {
+        JumpTable.of(8).lengthOf(0);
+    }
+}
@@ -0,0 +1,47 @@
+package collatz;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketsShouldCoverEveryValueWithinPrecision() {
+        Random random = new Random();
+        for (int i = 0; i < 100000; i++) {
+            long value = random.nextLong() >>> (1 + random.nextInt(63));
+            int index = LatencyHistogram.indexOf(value);
+            assert LatencyHistogram.lowestOf(index) <= value;
+            assert value <= LatencyHistogram.highestOf(index);
+            assert LatencyHistogram.highestOf(index) - LatencyHistogram.lowestOf(index)
+                    <= Math.max(0, value / LatencyHistogram.SUB_BUCKETS);
+        }
+        assert LatencyHistogram.indexOf(Long.MAX_VALUE) == LatencyHistogram.BUCKETS - 1;
+        for (int index = 1; index < LatencyHistogram.BUCKETS; index++) {
+            assert LatencyHistogram.lowestOf(index) == LatencyHistogram.highestOf(index - 1) + 1;
+        }
+    }
+
+    @Test
+    public void quantilesShouldBeWithinPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assert histogram.valueAtQuantile(0.5) == 0;
+        for (long value = 1; value <= 10000; value++) {
+            histogram.record(value * 1000);
+        }
+        assert histogram.count() == 10000;
+        assert histogram.max() == 10000000;
+        assert Math.abs(histogram.mean() - 5000500) < 1;
+        assert Math.abs(histogram.valueAtQuantile(0.5) - 5000000) <= 5000000 / LatencyHistogram.SUB_BUCKETS;
+        assert Math.abs(histogram.valueAtQuantile(0.99) - 9900000) <= 9900000 / LatencyHistogram.SUB_BUCKETS;
+        assert histogram.valueAtQuantile(1) == 10000000;
+        histogram.reset();
+        assert histogram.count() == 0 && histogram.valueAtQuantile(0.5) == 0;
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeValuesShouldThrowException() {
+        new LatencyHistogram().record(-1);
+    }
+}
@@ -0,0 +1,136 @@
+package collatz;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+import static collatz.Collatz.*;
+
+public class LengthCacheTest {
+
+    private File file;
+
+    @Before
+    public void createFile() throws IOException {
+        file = File.createTempFile("collatz-cache", ".bin");
+        assert file.delete();
+    }
+
+    @After
+    public void deleteFile() {
+        assert !file.exists() || file.delete();
+    }
+
+    @Test
+    public void cacheShouldMatchMemoizedAndSurviveReopening() throws IOException {
+        int[] memoized = memoizedComputeSequenceLengths(5000);
+
+        try (LengthCache cache = LengthCache.open(file.toPath())) {
+            assert cache.bound() == 0;
+            LengthTable table = cache.ensure(1000);
+            assert cache.bound() == 1000;
+            for (int i = 1; i <= 1000; i++)
+                assert table.get(i) == memoized[i];
+        }
+
+        try (LengthCache cache = LengthCache.open(file.toPath())) {
+            assert cache.bound() == 1000;
+            LengthTable table = cache.ensure(5000);
+            assert cache.bound() == 5000;
+            for (int i = 1; i <= 5000; i++)
+                assert table.get(i) == memoized[i];
+        }
+    }
+
+    @Test
+    public void grownCacheShouldPassVerificationOnReopening() throws IOException {
+        try (LengthCache cache = LengthCache.open(file.toPath())) {
+            cache.ensure(1000);
+            cache.ensure(1001);
+            cache.ensure(300000);
+        }
+        try (LengthCache cache = LengthCache.open(file.toPath())) {
+            assert cache.bound() == 300000;
+        }
+    }
+
+    @Test
+    public void rangesShouldMoveTheBoundOnlyWithoutGaps() throws IOException {
+        int[] memoized = memoizedComputeSequenceLengths(30000);
+        try (LengthCache cache = LengthCache.open(file.toPath())) {
+            cache.ensure(5000);
+            cache.reserve(30000);
+            cache.fillRange(20001, 30000);
+            cache.markFilled(20001, 30000);
+            assert cache.bound() == 5000;
+            cache.fillRange(5001, 20000);
+            cache.markFilled(5001, 20000);
+            assert cache.bound() == 30000;
+            LengthTable table = cache.ensure(30000);
+            for (int i = 1; i <= 30000; i++)
+                assert table.get(i) == memoized[i];
+        }
+        try (LengthCache cache = LengthCache.open(file.toPath())) {
+            assert cache.bound() == 30000;
+        }
+    }
+
+    @Test
+    public void combinedChecksumShouldMatchWholeChecksum() {
+        byte[] bytes = new byte[100000];
+        new Random(42).nextBytes(bytes);
+        for (int split : new int[]{0, 1, 7, 4096, 99999, 100000}) {
+            CRC32 first = new CRC32();
+            first.update(bytes, 0, split);
+            CRC32 second = new CRC32();
+            second.update(bytes, split, bytes.length - split);
+            CRC32 whole = new CRC32();
+            whole.update(bytes);
+            assert LengthCache.combine(first.getValue(), second.getValue(), bytes.length - split) == whole.getValue();
+        }
+    }
+
+    @Test
+    public void damagedCacheShouldBeRebuilt() throws IOException {
+        int[] memoized = memoizedComputeSequenceLengths(1000);
+        try (LengthCache cache = LengthCache.open(file.toPath())) {
+            cache.ensure(1000);
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(LengthCache.HEADER_SIZE + 2 * 27);
+            raf.writeShort(0);
+        }
+
+        try (LengthCache cache = LengthCache.open(file.toPath())) {
+            assert cache.bound() == 0;
+            LengthTable table = cache.ensure(1000);
+            for (int i = 1; i <= 1000; i++)
+                assert table.get(i) == memoized[i];
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void foreignFileShouldThrowException() throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.write(new byte[LengthCache.HEADER_SIZE]);
+        }
+        LengthCache.open(file.toPath()).close();
+    }
+
+    @Test
+    public void equalLengthTwinsFromCacheShouldMatchUncached() throws IOException {
+        try (LengthCache cache = LengthCache.open(file.toPath())) {
+            List<Pair<Long, Integer>> cached = equalLengthTwins(1, 2000, cache);
+            List<Pair<Long, Integer>> uncached = equalLengthTwins(1, 2000);
+            assert cached.equals(uncached);
+            assert cache.bound() == 2001;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package collatz;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.util.List;
+
+import static collatz.Collatz.*;
+
+public class LengthTableTest {
+
+    @Test
+    public void offHeapTableShouldMatchMemoized() {
+        int length = 100000;
+        int[] memoized = memoizedComputeSequenceLengths(length);
+        LengthTable table = memoizedComputeSequenceLengthTable(length);
+        assert table.bound() == length;
+        for (int i = 1; i <= length; i++)
+            assert table.get(i) == memoized[i];
+    }
+
+    @Test
+    public void mappedTableShouldMatchMemoized() throws IOException {
+        int length = 10000;
+        int[] memoized = memoizedComputeSequenceLengths(length);
+        File file = File.createTempFile("collatz-test", ".bin");
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            LengthTable table = OffHeapLengthTable.map(raf.getChannel(), 16, length, FileChannel.MapMode.READ_WRITE);
+            LengthTables.fill(table, 1);
+            assert file.length() == 16 + OffHeapLengthTable.bytesFor(length);
+            for (int i = 1; i <= length; i++)
+                assert table.get(i) == memoized[i];
+        } finally {
+            assert file.delete();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void lengthBeyondSixteenBitsShouldThrowException() {
+        OffHeapLengthTable.allocateDirect(10).set(1, 0x10000);
+    }
+
+    @Test
+    public void equalLengthTwinsBeyondTableLimit() {
+        long lo = TABLE_LIMIT;
+        long hi = TABLE_LIMIT + 100;
+
+        List<Pair<Long, Integer>> result = equalLengthTwins(lo, hi);
+
+        int count = 0;
+        for (long i = lo; i <= hi; i++) {
+            if (lengthOfSequence(i) == lengthOfSequence(i + 1)) {
+                assert result.get(count++).equals(new Pair<>(i, lengthOfSequence(i)));
+            }
+        }
+        assert result.size() == count;
+    }
+
+    @Test
+    public void equalMaxValueTwinsBeyondTableLimit() {
+        long lo = TABLE_LIMIT - 100;
+        long hi = TABLE_LIMIT + 100;
+
+        List<Pair<Long, Long>> result = equalMaxValueTwins(lo, hi);
+
+        int count = 0;
+        for (long i = lo; i <= hi; i++) {
+            if (largestValueInSequence(i) == largestValueInSequence(i + 1)) {
+                assert result.get(count++).equals(new Pair<>(i, largestValueInSequence(i)));
+            }
+        }
+        assert result.size() == count;
+
+        //The peak of LONG_PEAK_BOUND + 1 does not fit into a long
+        long bound = TrajectoryStats.LONG_PEAK_BOUND;
+        assert equalMaxValueTwins(bound - 20, bound - 1)
+                .equals(List.of(new Pair<>(8528817490L, 163938197968L), new Pair<>(8528817500L, 25935535312L)));
+        try {
+            equalMaxValueTwins(bound - 20, bound);
+            assert false;
+        } catch (IllegalArgumentException e) {
+            assert e.getMessage().equals("Input value out of range!");
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package collatz;
+
+import org.junit.After;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+import static collatz.Collatz.*;
+
+public class MetricsTest {
+
+    @After
+    public void disable() {
+        Metrics.setEnabled(false);
+        Metrics.reset();
+    }
+
+    @Test
+    public void disabledMetricsShouldRecordNothing() {
+        Metrics.reset();
+        memoizedComputeSequenceLengths(10000);
+        lengthOfSequence(27);
+        assert Metrics.steps() == 0 && Metrics.seeds() == 0;
+        assert Metrics.Operation.MEMOIZED_LENGTHS.latency.count() == 0;
+    }
+
+    @Test
+    public void kernelsShouldCountSeedsStepsAndMemoHits() {
+        Metrics.reset();
+        Metrics.setEnabled(true);
+        int[] lengths = memoizedComputeSequenceLengths(10000);
+        assert Metrics.seeds() == 10000;
+        //Every seed but 1 finishes on the memo
+        assert Metrics.memoHits() == 9999;
+        assert Metrics.memoHitRatio() > 0.99;
+        long steps = Metrics.steps();
+        assert steps > 10000 && steps < 10000L * lengths[6171];
+        assert Metrics.peakTableBytes() == 4 * 10001;
+        assert Metrics.Operation.MEMOIZED_LENGTHS.latency.count() == 1;
+
+        Metrics.reset();
+        parallelComputeSequenceLengths(100000);
+        parallelComputePeakValues(100000);
+        assert Metrics.seeds() == 200000;
+        assert Metrics.peakTableBytes() == 8 * 100001;
+        assert Metrics.stepsPerSecond() > 0;
+
+        Metrics.reset();
+        lengthOfSequence(27);
+        assert Metrics.steps() == 111;
+        assert Metrics.Operation.LENGTH_OF_SEQUENCE.latency.count() == 1;
+    }
+
+    @Test
+    public void everyOperationShouldBeExported() {
+        Metrics.reset();
+        Metrics.setEnabled(true);
+        lengthTwins(1, 1000);
+        maxValueTwins(1, 1000);
+        occurrences(1000, 10);
+        Map<String, Long> counters = new HashMap<>();
+        Map<String, Long> calls = new HashMap<>();
+        Metrics.exportTo(new MetricsExporter() {
+            @Override
+            public void counter(String name, long value) {
+                counters.put(name, value);
+            }
+
+            @Override
+            public void histogram(String name, LatencyHistogram latencyNanos) {
+                calls.put(name, latencyNanos.count());
+            }
+        });
+        assert counters.get("collatz.seeds") >= 2002;
+        assert calls.size() == Metrics.Operation.values().length;
+        assert calls.get("collatz.lengthTwins") == 1;
+        assert calls.get("collatz.memoizedComputeSequenceLengths") >= 1;
+        assert calls.get("collatz.maxValueTwins") == 1;
+        assert calls.get("collatz.parallelComputePeakValues") == 1;
+        assert calls.get("collatz.occurrences") == 1;
+    }
+
+    @Test
+    public void mbeanShouldExposeAndSwitchMetrics() throws Exception {
+        Metrics.registerMBean();
+        Metrics.registerMBean();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(Metrics.OBJECT_NAME);
+        server.setAttribute(name, new javax.management.Attribute("Enabled", true));
+        assert Metrics.enabled();
+        server.invoke(name, "reset", null, null);
+        lengthOfSequence(27);
+        assert (Long) server.getAttribute(name, "Steps") == 111;
+        long latency = (Long) server.invoke(name, "latencyNanos", new Object[]{"lengthOfSequence", 0.5},
+                new String[]{String.class.getName(), double.class.getName()});
+        assert latency > 0;
+    }
+}
@@ -0,0 +1,63 @@
+package collatz;
+
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static collatz.Collatz.*;
+
+public class OccurrenceCounterTest {
+
+    private static int[] walkedOccurrences(long n, int counts) {
+        int[] occurrences = new int[counts + 1];
+        for (long i = 1; i <= n; i++) {
+            forEachInSequence(i, value -> {
+                if (value <= counts) {
+                    occurrences[(int) value]++;
+                }
+            });
+        }
+        return occurrences;
+    }
+
+    @Test
+    public void occurrencesShouldMatchWalkedTrajectories() {
+        int[][] cases = {{10000, 100}, {10000, 9999}, {5000, 20000}, {1, 1}, {27, 5}};
+        for (int[] c : cases) {
+            int[] expected = walkedOccurrences(c[0], c[1]);
+            int[] result = occurrences(c[0], c[1]);
+            for (int v = 0; v <= c[1]; v++)
+                assert result[v] == expected[v];
+        }
+    }
+
+    @Test
+    public void smallBlocksShouldMatchWalkedTrajectories() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            int[] expected = walkedOccurrences(20000, 300);
+            int[] result = OccurrenceCounter.count(20000, 300, pool, 13);
+            for (int v = 0; v <= 300; v++)
+                assert result[v] == expected[v];
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void occurrencesBeyondOldLimit() {
+        int[] result = occurrences(10000001, 8);
+        assert result[1] == 10000001;
+        assert result[2] == 10000000;
+        assert result[4] == 9999999;
+        assert result[8] == 9999998;
+    }
+
+    @Test
+    public void entriesPastLongShouldBeCounted() {
+        //The trajectory leaves long type on its first step
+        long[] entryCounts = new long[101];
+        OccurrenceCounter.countEntries(3074457345618258603L, 3074457345618258603L, 100, entryCounts);
+        assert entryCounts[55] == 1;
+    }
+}
@@ -0,0 +1,55 @@
+package collatz;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static collatz.Collatz.*;
+
+public class PackedLengthTableTest {
+
+    @Test
+    public void packedTableShouldMatchMemoized() {
+        int length = 1000000;
+        int[] memoized = memoizedComputeSequenceLengths(length);
+        PackedLengthTable table = packedComputeSequenceLengthTable(length);
+        assert table.bound() == length;
+        assert table.width() == 10;
+        for (int i = 1; i <= length; i++)
+            assert table.get(i) == memoized[i];
+        assert PackedLengthTable.bytesFor(length) * 3 < 4L * length;
+    }
+
+    @Test
+    public void everyWidthShouldRoundTrip() {
+        Random random = new Random();
+        for (int width = PackedLengthTable.MIN_WIDTH; width <= PackedLengthTable.MAX_WIDTH; width++) {
+            int size = 1000;
+            PackedLengthTable table = new PackedLengthTable(size, width);
+            int[] expected = new int[size + 1];
+            //Write twice so that stale bits of every field get overwritten
+            for (int pass = 0; pass < 2; pass++) {
+                for (int i = 0; i <= size; i++) {
+                    expected[i] = random.nextInt(1 << width);
+                    table.set(i, expected[i]);
+                }
+            }
+            table.set(size, (1 << width) - 1);
+            expected[size] = (1 << width) - 1;
+            for (int i = 0; i <= size; i++)
+                assert table.get(i) == expected[i];
+        }
+    }
+
+    @Test
+    public void widthShouldFollowBound() {
+        assert PackedLengthTable.widthFor(TABLE_LIMIT) == 10;
+        assert PackedLengthTable.widthFor(1L << 29) == 11;
+        assert PackedLengthTable.widthFor(1L << 32) == 12;
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void lengthBeyondWidthShouldThrowException() {
+        PackedLengthTable.allocate(10).set(1, 1 << 10);
+    }
+}
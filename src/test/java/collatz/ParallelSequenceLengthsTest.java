@@ -0,0 +1,41 @@
+package collatz;
+
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static collatz.Collatz.*;
+
+public class ParallelSequenceLengthsTest {
+
+    @Test
+    public void parallelSequenceLengthsShouldMatchMemoized() {
+        int length = 1000000;
+        int[] memoized = memoizedComputeSequenceLengths(length);
+        int[] parallel = parallelComputeSequenceLengths(length);
+        assert parallel.length == memoized.length;
+        for (int i = 1; i <= length; i++)
+            assert parallel[i] == memoized[i];
+    }
+
+    @Test
+    public void smallBlocksShouldMatchMemoized() {
+        //Tiny blocks force lookups into other workers' blocks
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int blockSize = 1; blockSize <= 64; blockSize *= 4) {
+                int[] memoized = memoizedComputeSequenceLengths(5000);
+                int[] parallel = ParallelSequenceLengths.compute(5000, pool, blockSize);
+                for (int i = 1; i <= 5000; i++)
+                    assert parallel[i] == memoized[i];
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parallelSequenceLengthsOfZeroShouldThrowException() {
+        parallelComputeSequenceLengths(0);
+    }
+}
@@ -0,0 +1,54 @@
+package collatz;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static collatz.Collatz.*;
+
+public class PeakValuesTest {
+
+    @Test
+    public void memoizedPeakValuesShouldMatchLargestValueInSequence() {
+        int length = 100000;
+        long[] peaks = memoizedComputePeakValues(length);
+        assert peaks.length == length + 1;
+        for (int i = 1; i <= length; i++)
+            assert peaks[i] == largestValueInSequence(i);
+    }
+
+    @Test
+    public void parallelPeakValuesShouldMatchMemoized() {
+        long[] memoized = memoizedComputePeakValues(1000000);
+        long[] parallel = parallelComputePeakValues(1000000);
+        for (int i = 1; i <= 1000000; i++)
+            assert parallel[i] == memoized[i];
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            long[] smallBlocks = ParallelPeakValues.compute(5000, pool, 7);
+            for (int i = 1; i <= 5000; i++)
+                assert smallBlocks[i] == memoized[i];
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void equalMaxValueTwinsShouldMatchLargestValueInSequence() {
+        long lo = 1000;
+        long hi = 3000;
+
+        List<Pair<Long, Long>> result = equalMaxValueTwins(lo, hi);
+
+        int count = 0;
+        for (long i = lo; i <= hi; i++) {
+            long max = largestValueInSequence(i);
+            if (max == largestValueInSequence(i + 1)) {
+                assert result.get(count++).equals(new Pair<>(i, max));
+            }
+        }
+        assert result.size() == count;
+    }
+}
@@ -0,0 +1,55 @@
+package collatz;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+public class QueryServerTest {
+
+    private static HttpURLConnection get(QueryServer server, String path) throws IOException {
+        return (HttpURLConnection) new URL("http://127.0.0.1:" + server.port() + path).openConnection();
+    }
+
+    private static String body(HttpURLConnection connection) throws IOException {
+        try (InputStream in = connection.getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.US_ASCII);
+        }
+    }
+
+    @Test
+    public void endpointsShouldAnswerOneResultPerLine() throws IOException {
+        try (BatchQueryService service = BatchQueryService.create(1 << 16);
+             QueryServer server = QueryServer.start(service, 0)) {
+            assert body(get(server, "/length?seeds=1,27,97")).equals("1\n112\n119\n");
+            assert body(get(server, "/peak?seeds=1,27")).equals("1\n9232\n");
+            //The peak of LONG_PEAK_BOUND + 1 does not fit into a long
+            assert body(get(server, "/peak?seeds=27," + (TrajectoryStats.LONG_PEAK_BOUND + 1)))
+                    .equals("9232\n18144594937356598024\n");
+            TwinResults twins = Collatz.lengthTwins(1, 20);
+            StringBuilder expected = new StringBuilder();
+            for (int i = 0; i < twins.size(); i++) {
+                expected.append(twins.seed(i)).append(' ').append(twins.value(i)).append('\n');
+            }
+            assert body(get(server, "/twins?lo=1&hi=20")).equals(expected.toString());
+            assert body(get(server, "/twins?kind=maxvalue&lo=1&hi=20")).startsWith("5 16\n");
+        }
+    }
+
+    @Test
+    public void malformedQueriesShouldBeRejected() throws IOException {
+        try (BatchQueryService service = BatchQueryService.create(1 << 16);
+             QueryServer server = QueryServer.start(service, 0)) {
+            assert get(server, "/length?seeds=1,x").getResponseCode() == 400;
+            assert get(server, "/length?seeds=0").getResponseCode() == 400;
+            assert get(server, "/peak").getResponseCode() == 400;
+            assert get(server, "/twins?lo=5&hi=1").getResponseCode() == 400;
+            assert get(server, "/twins?kind=odd&lo=1&hi=5").getResponseCode() == 400;
+            assert get(server, "/twins?lo=1&hi=" + (QueryServer.MAX_TWIN_BOUND + 1)).getResponseCode() == 400;
+            assert get(server, "/unknown").getResponseCode() == 404;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package collatz;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.concurrent.ForkJoinPool;
+
+import static collatz.Collatz.*;
+
+public class RangeJobTest {
+
+    private File file;
+    private ForkJoinPool pool;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("collatz-job", ".ckpt");
+        assert file.delete();
+        pool = new ForkJoinPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        pool.shutdown();
+        assert !file.exists() || file.delete();
+    }
+
+    @Test
+    public void convergenceJobShouldFinishEveryUnit() throws IOException {
+        RangeJob<Long> job = RangeJob.convergence(1, 5000000, 100000, 12);
+        assert job.run(file.toPath(), pool) == -1;
+        assert job.unitsDone() == job.totalUnits();
+        assert job.totalUnits() == 50;
+        assert job.seedsPerSecond() > 0;
+    }
+
+    @Test
+    public void occurrencesJobShouldMatchOccurrences() throws IOException {
+        long[] result = RangeJob.occurrences(100000, 500, 7000).run(file.toPath(), pool);
+        int[] expected = occurrences(100000, 500);
+        for (int v = 1; v <= 500; v++)
+            assert result[v] == expected[v];
+    }
+
+    @Test
+    public void lengthTwinsJobShouldMatchLengthTwins() throws IOException {
+        TwinResults result = RangeJob.lengthTwins(10, 50000, 999).run(file.toPath(), pool);
+        assert result.equals(lengthTwins(10, 50000));
+    }
+
+    @Test
+    public void maxValueTwinsJobShouldMatchMaxValueTwins() throws IOException {
+        TwinResults result = RangeJob.maxValueTwins(10, 50000, 999).run(file.toPath(), pool);
+        assert result.equals(maxValueTwins(10, 50000));
+    }
+
+    @Test
+    public void lengthsJobShouldMatchTable() throws IOException {
+        LengthTable table = RangeJob.lengths(30001, 4096).run(file.toPath(), pool);
+        int[] memoized = memoizedComputeSequenceLengths(30001);
+        for (int i = 1; i <= 30001; i++)
+            assert table.get(i) == memoized[i];
+    }
+
+    @Test
+    public void recordJobsShouldMatchRecordSearch() throws IOException {
+        RecordSearch search = new RecordSearch(pool, RecordSearch.DEFAULT_CHUNK_SIZE);
+        assert RangeJob.delayRecords(1, 2000000, 77777, 0).run(file.toPath(), pool)
+                .equals(search.delayRecordRows(1, 2000000, 0));
+        assert file.delete();
+        assert RangeJob.pathRecords(1000, 2000000, 77777, 250504).run(file.toPath(), pool)
+                .equals(search.pathRecordRows(1000, 2000000, 250504));
+    }
+
+    @Test
+    public void headerShouldRebuildTheJob() throws IOException {
+        RangeJob<TwinResults> job = RangeJob.pathRecords(5, 123456, 1000, 42);
+        RangeJob<?> rebuilt = RangeJob.readHeader(new DataInputStream(new ByteArrayInputStream(job.header())));
+        assert rebuilt.kind().equals("pathRecords");
+        assert rebuilt.parameter() == 42;
+        assert rebuilt.totalUnits() == job.totalUnits();
+        assert rebuilt.unitLo(3) == 3005 && rebuilt.unitHi(123) == 123456;
+    }
+
+    @Test
+    public void lengthTableJobShouldFillCache() throws IOException {
+        File cacheFile = File.createTempFile("collatz-cache", ".bin");
+        try (LengthCache cache = LengthCache.open(cacheFile.toPath())) {
+            LengthTable table = RangeJob.lengthTable(cache, 30000, 4096).run(file.toPath(), pool);
+            int[] memoized = memoizedComputeSequenceLengths(30000);
+            for (int i = 1; i <= 30000; i++)
+                assert table.get(i) == memoized[i];
+        } finally {
+            assert cacheFile.delete();
+        }
+    }
+
+    @Test
+    public void lengthTableJobShouldExtendAFilledCache() throws IOException {
+        File cacheFile = File.createTempFile("collatz-cache", ".bin");
+        try {
+            try (LengthCache cache = LengthCache.open(cacheFile.toPath())) {
+                RangeJob.lengthTable(cache, 20000, 1000).run(file.toPath(), pool);
+                assert cache.bound() == 20000;
+            }
+            //A larger job over the same file only fills the units past the
+            //bound the first one left
+            assert file.delete();
+            try (LengthCache cache = LengthCache.open(cacheFile.toPath())) {
+                RangeJob<LengthTable> job = RangeJob.lengthTable(cache, 50000, 1000);
+                LengthTable table = job.run(file.toPath(), pool);
+                int[] memoized = memoizedComputeSequenceLengths(50000);
+                for (int i = 1; i <= 50000; i++)
+                    assert table.get(i) == memoized[i];
+            }
+            try (LengthCache cache = LengthCache.open(cacheFile.toPath())) {
+                assert cache.bound() == 50000;
+            }
+        } finally {
+            assert cacheFile.delete();
+        }
+    }
+
+    @Test
+    public void resumedJobShouldReplayLoggedUnits() throws IOException {
+        RangeJob.convergence(1, 1000000, 100000, 12).run(file.toPath(), pool);
+
+        //Replace the log with the header, a forged result for unit 3 and a
+        //torn record behind it
+        long headerLength;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            headerLength = raf.length() - 10 * (12 + 8);
+            raf.setLength(headerLength);
+        }
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file, true))) {
+            out.writeLong(3);
+            out.writeInt(1);
+            out.writeLong(300042);
+            out.writeLong(7);
+            out.writeShort(1);
+        }
+
+        RangeJob<Long> resumed = RangeJob.convergence(1, 1000000, 100000, 12);
+        assert resumed.run(file.toPath(), pool) == 300042;
+        assert resumed.unitsDone() == 10;
+        assert file.length() == headerLength + 10 * (12 + 8);
+    }
+
+    @Test
+    public void peakJobsPastLongShouldBeRejected() {
+        //The peak of LONG_PEAK_BOUND + 1 does not fit into a long
+        long bound = TrajectoryStats.LONG_PEAK_BOUND;
+        RangeJob.maxValueTwins(bound - 10, bound - 1, 4);
+        RangeJob.pathRecords(bound - 10, bound, 4, 0);
+        try {
+            RangeJob.maxValueTwins(bound - 10, bound, 4);
+            assert false;
+        } catch (IllegalArgumentException e) {
+            assert e.getMessage().equals("Input value out of range!");
+        }
+        try {
+            RangeJob.pathRecords(bound - 10, bound + 1, 4, 0);
+            assert false;
+        } catch (IllegalArgumentException e) {
+            assert e.getMessage().equals("Input value out of range!");
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void checkpointOfDifferentJobShouldThrowException() throws IOException {
+        RangeJob.convergence(1, 1000, 100, 12).run(file.toPath(), pool);
+        RangeJob.convergence(1, 2000, 100, 12).run(file.toPath(), pool);
+    }
+}
@@ -0,0 +1,84 @@
+package collatz;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static collatz.Collatz.*;
+
+public class RecordSearchTest {
+
+    @Test
+    public void delayRecordsShouldMatchTableScan() {
+        int hi = 3000000;
+        int[] lengths = memoizedComputeSequenceLengths(hi);
+        List<Pair<Long, Integer>> expected = new ArrayList<>();
+        int best = 0;
+        for (int i = 1; i <= hi; i++) {
+            if (lengths[i] > best) {
+                best = lengths[i];
+                expected.add(new Pair<>((long) i, best));
+            }
+        }
+        assert delayRecords(hi).equals(expected);
+        //Small chunks put many merges between records
+        assert new RecordSearch(ForkJoinPool.commonPool(), 1000).delayRecords(1, hi, 0).equals(expected);
+    }
+
+    @Test
+    public void pathRecordsShouldMatchTableScan() {
+        int hi = 3000000;
+        long[] peaks = memoizedComputePeakValues(hi);
+        List<Pair<Long, BigInteger>> expected = new ArrayList<>();
+        long best = 0;
+        for (int i = 1; i <= hi; i++) {
+            if (peaks[i] > best) {
+                best = peaks[i];
+                expected.add(new Pair<>((long) i, BigInteger.valueOf(best)));
+            }
+        }
+        assert pathRecords(hi).equals(expected);
+        assert new RecordSearch(ForkJoinPool.commonPool(), 777).pathRecords(1, hi, BigInteger.ZERO).equals(expected);
+    }
+
+    @Test
+    public void resumedSearchShouldContinueTheRecords() {
+        int middle = 500000;
+        int[] lengths = memoizedComputeSequenceLengths(middle);
+        int previous = 0;
+        for (int i = 1; i <= middle; i++) {
+            previous = Math.max(previous, lengths[i]);
+        }
+        List<Pair<Long, Integer>> joined = new ArrayList<>(delayRecords(middle));
+        joined.addAll(delayRecords(middle + 1, 2 * middle, previous));
+        assert joined.equals(delayRecords(2 * middle));
+    }
+
+    @Test
+    public void pathRecordsPastLongShouldBeExact() {
+        //No seed below 8,528,817,511 peaks past the range of long type, and
+        //that seed does
+        long lo = 8528817511L - 2000;
+        long hi = 8528817511L + 2000;
+        BigInteger previous = BigInteger.valueOf(Long.MAX_VALUE);
+        List<Pair<Long, BigInteger>> expected = new ArrayList<>();
+        BigInteger best = previous;
+        for (long n = lo; n <= hi; n++) {
+            BigInteger peak = largestValueInSequence(BigInteger.valueOf(n));
+            if (peak.compareTo(best) > 0) {
+                best = peak;
+                expected.add(new Pair<>(n, peak));
+            }
+        }
+        assert !expected.isEmpty();
+        assert pathRecords(lo, hi, previous).equals(expected);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidRangeShouldThrowException() {
+        delayRecords(10, 1, 0);
+    }
+}
@@ -0,0 +1,48 @@
+package collatz;
+
+import org.junit.Test;
+
+import static collatz.Collatz.*;
+
+public class ReducedLengthTableTest {
+
+    @Test
+    public void reducedSequenceLengthsShouldMatchMemoized() {
+        for (int length : new int[]{1, 2, 3, 4, 5, 1000003}) {
+            int[] memoized = memoizedComputeSequenceLengths(length);
+            int[] reduced = reducedComputeSequenceLengths(length);
+            assert reduced.length == memoized.length;
+            for (int i = 1; i <= length; i++)
+                assert reduced[i] == memoized[i];
+        }
+    }
+
+    @Test
+    public void reducedTableShouldMatchMemoized() {
+        for (int length : new int[]{1, 2, 3, 7, 1000003}) {
+            int[] memoized = memoizedComputeSequenceLengths(length);
+            ReducedLengthTable table = reducedComputeSequenceLengthTable(length);
+            assert table.bound() == length;
+            for (int i = 1; i <= length; i++)
+                assert table.get(i) == memoized[i];
+        }
+    }
+
+    @Test
+    public void memoFillShouldOnlyStoreIrreducibleSeeds() {
+        int length = 100000;
+        int[] memoized = memoizedComputeSequenceLengths(length);
+        LengthTable stored = OffHeapLengthTable.allocateDirect(ReducedLengthTable.storedBound(length));
+        ReducedLengthTable table = new ReducedLengthTable(stored, length);
+        LengthTables.fill(table, 1);
+        for (int i = 1; i <= length; i++)
+            assert table.get(i) == memoized[i];
+        for (int k = 0; 4 * k + 3 <= length; k++)
+            assert stored.get(k) == memoized[4 * k + 3];
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void smallBackingTableShouldThrowException() {
+        new ReducedLengthTable(OffHeapLengthTable.allocateDirect(10), 100);
+    }
+}
@@ -0,0 +1,102 @@
+package collatz;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import static collatz.Collatz.*;
+
+public class ReverseTreeTest {
+
+    @Test
+    public void lengthBucketsShouldMatchForwardScan() {
+        int bound = 1000000;
+        int[] lengths = memoizedComputeSequenceLengths(bound);
+        for (int length : new int[]{1, 2, 5, 20, 63}) {
+            long[] expected = new long[bound];
+            int size = 0;
+            for (int i = 1; i <= bound; i++) {
+                if (lengths[i] == length) expected[size++] = i;
+            }
+            assert Arrays.equals(seedsWithLength(length, bound), Arrays.copyOf(expected, size));
+        }
+    }
+
+    @Test
+    public void levelsShouldHoldEveryLengthExactly() {
+        long[] seeds = new ReverseTree(ForkJoinPool.commonPool()).seedsWithLength(50);
+        assert seeds.length == 62680;
+        assert seeds[seeds.length - 1] == 1L << 49;
+        for (int i = 0; i < seeds.length; i += 97) {
+            assert lengthOfSequence(seeds[i]) == 50;
+        }
+    }
+
+    @Test
+    public void parallelExpansionShouldMatchSerial() {
+        ReverseTree tree = new ReverseTree(ForkJoinPool.commonPool());
+        long[] frontier = tree.seedsWithLength(55);
+        assert frontier.length > 4 * ReverseTree.CHUNK_SIZE;
+        long[] expected = tree.seedsWithLength(56);
+        long[] next = tree.expand(frontier);
+        Arrays.sort(next);
+        assert Arrays.equals(next, expected);
+    }
+
+    @Test
+    public void passThroughShouldMatchForwardScan() {
+        int bound = 100000;
+        for (long value : new long[]{1, 16, 27, 9232, 160}) {
+            for (int depth : new int[]{0, 3, 40}) {
+                long[] expected = new long[bound];
+                int size = 0;
+                for (long seed = 1; seed <= bound; seed++) {
+                    long currentN = seed;
+                    for (int step = 0; step <= depth; step++) {
+                        if (currentN == value) {
+                            expected[size++] = seed;
+                            break;
+                        }
+                        if (currentN == 1) break;
+                        currentN = collatz_1(currentN);
+                    }
+                }
+                assert Arrays.equals(seedsPassingThrough(value, depth, bound), Arrays.copyOf(expected, size));
+            }
+        }
+    }
+
+    @Test
+    public void deepPassThroughShouldBePrunedAndCapped() {
+        int bound = 2000000;
+        long[] seeds = seedsPassingThrough(9232, 80, bound);
+        int count = 0;
+        for (long seed = 1; seed <= bound; seed++) {
+            long currentN = seed;
+            for (int step = 0; step <= 80; step++) {
+                if (currentN == 9232) {
+                    assert seeds[count++] == seed;
+                    break;
+                }
+                if (currentN == 1) break;
+                currentN = collatz_1(currentN);
+            }
+        }
+        assert seeds.length == count;
+
+        //Values above bound that are not multiples of 3 keep the frontier
+        //growing, which fails cleanly instead of running out of memory
+        try {
+            seedsPassingThrough(9232, 200, bound);
+            assert false;
+        } catch (IllegalArgumentException e) {
+            assert e.getMessage().equals("Level does not fit into an array!");
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void lengthBeyondCompleteLevelsShouldThrowException() {
+        seedsWithLength(ReverseTree.MAX_LENGTH + 1, 100);
+    }
+}
@@ -0,0 +1,104 @@
+package collatz;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static collatz.Collatz.*;
+
+public class SeedCacheTest {
+
+    @Test
+    public void cachedQueriesShouldMatchTrajectoryStats() {
+        SeedCache cache = SeedCache.withMemoryBudget(1 << 20);
+        Random random = new Random();
+        for (int i = 0; i < 2000; i++) {
+            long seed = (random.nextLong() >>> 30) + 1;
+            TrajectoryStats stats = trajectoryStats(seed);
+            assert lengthOfSequence(seed, cache) == stats.length();
+            assert largestValueInSequence(seed, cache) == stats.peak();
+        }
+        for (long seed = 1; seed <= 1000; seed++) {
+            assert lengthOfSequence(seed, cache) == lengthOfSequence(seed);
+        }
+    }
+
+    @Test
+    public void repeatedAndJoiningQueriesShouldHit() {
+        SeedCache cache = SeedCache.withMemoryBudget(1 << 16);
+        long seed = 1L << 40 | 1;
+        cache.lengthOf(seed);
+        assert cache.misses() == 1;
+        cache.lengthOf(seed);
+        assert cache.hits() == 1;
+
+        //2 * seed steps straight onto the cached seed
+        assert cache.lengthOf(2 * seed) == lengthOfSequence(2 * seed);
+        assert cache.joins() == 1;
+        assert cache.hitRatio() > 0.6;
+    }
+
+    @Test
+    public void fullCacheShouldEvictAndStayBounded() {
+        SeedCache cache = SeedCache.withMemoryBudget(SeedCache.ENTRY_BYTES * 64);
+        assert cache.capacity() == 64;
+        for (long seed = SeedCache.DENSE_BOUND; seed < SeedCache.DENSE_BOUND + 1000; seed++) {
+            assert cache.lengthOf(seed) == lengthOfSequence(seed);
+        }
+        assert cache.evictions() > 0;
+    }
+
+    @Test
+    public void concurrentQueriesShouldMatchTrajectoryStats() throws InterruptedException, ExecutionException {
+        SeedCache cache = SeedCache.withMemoryBudget(SeedCache.ENTRY_BYTES * 256);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    Random random = new Random();
+                    for (int i = 0; i < 5000; i++) {
+                        long seed = SeedCache.DENSE_BOUND + random.nextInt(2000);
+                        TrajectoryStats stats = trajectoryStats(seed);
+                        assert cache.lengthOf(seed) == stats.length();
+                        assert cache.peakOf(seed) == stats.peak();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void queriesPastLongShouldFallBackToWideWalk() {
+        SeedCache cache = SeedCache.withMemoryBudget(1 << 16);
+        long seed = TrajectoryStats.LONG_PEAK_BOUND + 1;
+        for (long n : new long[]{seed, 2 * seed, Long.MAX_VALUE}) {
+            assert cache.lengthOf(n) == lengthOfSequence(n);
+            try {
+                cache.peakOf(n);
+                assert false;
+            } catch (ArithmeticException e) {
+                assert trajectoryStats(n).widePeak().bitLength() > 63;
+            }
+        }
+        //2 * seed joined the cached seed and kept its wide peak
+        assert cache.joins() == 1;
+        assert cache.peakOf(1410123943) == 7125885122794452160L;
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tinyBudgetShouldThrowException() {
+        SeedCache.withMemoryBudget(10);
+    }
+}
@@ -0,0 +1,215 @@
+package collatz;
+
+import org.junit.Test;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static collatz.Collatz.*;
+
+public class ShardCoordinatorTest {
+
+    //Runs the job on worker JVMs started next to the test
+    private static <R> R runOnProcesses(RangeJob<R> job, int processes) throws Exception {
+        try (ShardCoordinator<R> coordinator = new ShardCoordinator<>(job, 0)) {
+            String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+            List<Process> workers = new ArrayList<>();
+            for (int i = 0; i < processes; i++) {
+                workers.add(new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                        "collatz.ShardWorker", String.valueOf(coordinator.port()), "2")
+                        .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                        .redirectError(ProcessBuilder.Redirect.INHERIT)
+                        .start());
+            }
+            try {
+                R result = coordinator.run();
+                for (Process worker : workers) {
+                    assert worker.waitFor(30, TimeUnit.SECONDS);
+                    assert worker.exitValue() == 0;
+                }
+                return result;
+            } finally {
+                for (Process worker : workers) {
+                    worker.destroyForcibly();
+                }
+            }
+        }
+    }
+
+    //Runs the job on worker connections inside the test JVM, which connect
+    //once the given thread has finished
+    private static <R> R runOnThreads(ShardCoordinator<R> coordinator, int threads, Thread first)
+            throws Exception {
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    first.join();
+                    ShardWorker.work(coordinator.port());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        R result = coordinator.run();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return result;
+    }
+
+    private static <R> R runOnThreads(ShardCoordinator<R> coordinator, int threads) throws Exception {
+        Thread none = new Thread(() -> { });
+        none.start();
+        return runOnThreads(coordinator, threads, none);
+    }
+
+    //A worker connection driven by hand
+    private static class RawWorker implements AutoCloseable {
+        final Socket socket;
+        final DataInputStream in;
+        final DataOutputStream out;
+
+        RawWorker(int port) throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            out = new DataOutputStream(socket.getOutputStream());
+            RangeJob.readHeader(in);
+        }
+
+        //The unit handed out, -1 when done
+        long request() throws IOException {
+            out.writeByte(ShardCoordinator.REQUEST);
+            int message = in.read();
+            if (message != ShardCoordinator.UNIT) {
+                return -1;
+            }
+            return in.readLong();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    @Test
+    public void workerProcessesShouldMatchLocalResults() throws Exception {
+        assert runOnProcesses(RangeJob.lengthTwins(1, 2000000, 50000), 3).equals(lengthTwins(1, 2000000));
+        assert runOnProcesses(RangeJob.delayRecords(1, 3000000, 100000, 0), 2)
+                .asLengthPairs().equals(delayRecords(3000000));
+    }
+
+    @Test
+    public void workerThreadsShouldMatchLocalResults() throws Exception {
+        try (ShardCoordinator<long[]> coordinator = new ShardCoordinator<>(RangeJob.occurrences(100000, 500, 7000), 0)) {
+            long[] result = runOnThreads(coordinator, 3);
+            int[] expected = occurrences(100000, 500);
+            for (int v = 1; v <= 500; v++)
+                assert result[v] == expected[v];
+        }
+        try (ShardCoordinator<TwinResults> coordinator =
+                     new ShardCoordinator<>(RangeJob.maxValueTwins(3, 100000, 999), 0)) {
+            assert runOnThreads(coordinator, 2).equals(maxValueTwins(3, 100000));
+        }
+        try (ShardCoordinator<LengthTable> coordinator = new ShardCoordinator<>(RangeJob.lengths(100001, 4095), 0)) {
+            LengthTable table = runOnThreads(coordinator, 2);
+            int[] memoized = memoizedComputeSequenceLengths(100001);
+            for (int i = 1; i <= 100001; i++)
+                assert table.get(i) == memoized[i];
+        }
+    }
+
+    @Test
+    public void lostUnitShouldBeRetried() throws Exception {
+        RangeJob<TwinResults> job = RangeJob.lengthTwins(1, 100000, 10000);
+        try (ShardCoordinator<TwinResults> coordinator = new ShardCoordinator<>(job, 0)) {
+            Thread lost = new Thread(() -> {
+                try (RawWorker worker = new RawWorker(coordinator.port())) {
+                    assert worker.request() == 0;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            lost.start();
+            assert runOnThreads(coordinator, 2, lost).equals(lengthTwins(1, 100000));
+            assert coordinator.retries() == 1;
+            assert job.unitsDone() == 10;
+        }
+    }
+
+    @Test
+    public void stuckUnitShouldBeStolen() throws Exception {
+        try (ShardCoordinator<TwinResults> coordinator =
+                     new ShardCoordinator<>(RangeJob.lengthTwins(1, 100000, 10000), 0)) {
+            CountDownLatch finished = new CountDownLatch(1);
+            CountDownLatch holding = new CountDownLatch(1);
+            Thread stuck = new Thread(() -> {
+                try (RawWorker worker = new RawWorker(coordinator.port())) {
+                    assert worker.request() == 0;
+                    holding.countDown();
+                    finished.await();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            stuck.start();
+            Thread first = new Thread(() -> {
+                try {
+                    holding.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            first.start();
+            assert runOnThreads(coordinator, 1, first).equals(lengthTwins(1, 100000));
+            assert coordinator.steals() == 1;
+            finished.countDown();
+            stuck.join();
+        }
+    }
+
+    @Test
+    public void failingUnitShouldFailTheJob() throws Exception {
+        try (ShardCoordinator<TwinResults> coordinator =
+                     new ShardCoordinator<>(RangeJob.lengthTwins(1, 100000, 10000), 0)) {
+            Thread failing = new Thread(() -> {
+                try (RawWorker worker = new RawWorker(coordinator.port())) {
+                    long unit;
+                    while ((unit = worker.request()) >= 0) {
+                        worker.out.writeByte(ShardCoordinator.FAILED);
+                        worker.out.writeLong(unit);
+                        worker.out.writeUTF("broken");
+                    }
+                } catch (IOException e) {
+                    //The coordinator closes the connection when it gives up
+                }
+            });
+            failing.start();
+            try {
+                coordinator.run();
+                assert false;
+            } catch (IOException e) {
+                assert e.getMessage().contains("failed " + ShardCoordinator.MAX_ATTEMPTS + " times: broken");
+            }
+            failing.join();
+            assert coordinator.retries() == ShardCoordinator.MAX_ATTEMPTS - 1;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package collatz;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.List;
+
+import static collatz.Collatz.*;
+
+public class TrajectoryStatsTest {
+
+    @Test
+    public void statsOfOneShouldBeEmpty() {
+        TrajectoryStats stats = trajectoryStats(1);
+        assert stats.length() == 1;
+        assert stats.steps() == 0;
+        assert stats.peak() == 1;
+        assert stats.stoppingTime() == 0;
+    }
+
+    @Test
+    public void statsOfThreeShouldMatchKnownValues() {
+        //3, 10, 5, 16, 8, 4, 2, 1
+        TrajectoryStats stats = trajectoryStats(3);
+        assert stats.length() == 8;
+        assert stats.steps() == 7;
+        assert stats.oddSteps() == 2;
+        assert stats.evenSteps() == 5;
+        assert stats.peak() == 16;
+        assert stats.peakStep() == 3;
+        assert stats.stoppingTime() == 6;
+    }
+
+    @Test
+    public void reusedStatsShouldMatchSequences() {
+        TrajectoryStats stats = new TrajectoryStats();
+        for (long n = 1; n <= 1000; n++) {
+            List<Long> sequence = sequenceOf(n);
+            stats.walk(n);
+            assert stats.seed() == n;
+            assert stats.length() == sequence.size();
+            long peak = 0;
+            int odd = 0;
+            for (int i = 0; i < sequence.size(); i++) {
+                if (sequence.get(i) > peak) {
+                    peak = sequence.get(i);
+                    assert stats.peakStep() >= i;
+                }
+                if (i < sequence.size() - 1 && sequence.get(i) % 2 != 0) {
+                    odd++;
+                }
+            }
+            assert stats.peak() == peak;
+            assert sequence.get(stats.peakStep()) == peak;
+            assert stats.oddSteps() == odd;
+            if (n > 1) {
+                assert sequence.get(stats.stoppingTime()) < n;
+                for (int i = 1; i < stats.stoppingTime(); i++)
+                    assert sequence.get(i) >= n;
+            }
+        }
+    }
+
+    @Test
+    public void statsPastLongShouldMatchWideWalk() {
+        for (long n : new long[]{TrajectoryStats.LONG_PEAK_BOUND + 1, (Long.MAX_VALUE - 1) / 3 + 1, Long.MAX_VALUE}) {
+            TrajectoryStats stats = trajectoryStats(n);
+            BigInteger currentN = BigInteger.valueOf(n);
+            BigInteger peak = currentN;
+            int steps = 0;
+            int odd = 0;
+            int peakStep = 0;
+            int stoppingTime = 0;
+            while (!currentN.equals(BigInteger.ONE)) {
+                if (currentN.testBit(0)) {
+                    odd++;
+                    currentN = currentN.multiply(BigInteger.valueOf(3)).add(BigInteger.ONE);
+                } else {
+                    currentN = currentN.shiftRight(1);
+                }
+                steps++;
+                if (currentN.compareTo(peak) > 0) {
+                    peak = currentN;
+                    peakStep = steps;
+                }
+                if (stoppingTime == 0 && currentN.compareTo(BigInteger.valueOf(n)) < 0) {
+                    stoppingTime = steps;
+                }
+            }
+            assert stats.steps() == steps;
+            assert stats.oddSteps() == odd;
+            assert stats.widePeak().equals(peak);
+            assert stats.widePeak().equals(largestValueInSequence(BigInteger.valueOf(n)));
+            assert stats.peakStep() == peakStep;
+            assert stats.stoppingTime() == stoppingTime;
+        }
+    }
+
+    @Test
+    public void peakPastLongShouldThrowArithmeticException() {
+        TrajectoryStats stats = trajectoryStats(TrajectoryStats.LONG_PEAK_BOUND + 1);
+        assert stats.length() == 727;
+        try {
+            stats.peak();
+            assert false;
+        } catch (ArithmeticException e) {
+            assert stats.widePeak().bitLength() > 63;
+        }
+        assert trajectoryStats(1410123943).peak() == 7125885122794452160L;
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void statsOfZeroShouldThrowException() {
+        trajectoryStats(0);
+    }
+}
@@ -0,0 +1,69 @@
+package collatz;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static collatz.Collatz.*;
+
+public class TwinResultsTest {
+
+    @Test
+    public void pairsShouldCompareValuesOutsideTheIntegerCache() {
+        Pair<Long, Long> pair = new Pair<>(1000000L, 2000000L);
+        assert pair.equals(new Pair<>(1000000L, 2000000L));
+        assert pair.hashCode() == new Pair<>(1000000L, 2000000L).hashCode();
+        assert !pair.equals(new Pair<>(1000000L, 2000001L));
+
+        Set<Pair<Long, Long>> set = new HashSet<>();
+        set.add(pair);
+        assert set.contains(new Pair<>(1000000L, 2000000L));
+    }
+
+    @Test
+    public void twinsShouldHaveValueSemantics() {
+        assert new Twin(1L << 40, 7).equals(new Twin(1L << 40, 7));
+        assert new Twin(1L << 40, 7).hashCode() == new Twin(1L << 40, 7).hashCode();
+        assert !new Twin(1L << 40, 7).equals(new Twin(1L << 40, 8));
+        assert new Twin(28, 19).toString().equals("(28, 19)");
+    }
+
+    @Test
+    public void resultsShouldGrowAndKeepOrder() {
+        TwinResults results = new TwinResults(0);
+        for (long i = 0; i < 1000; i++) {
+            results.add(i, i * i);
+        }
+        assert results.size() == 1000;
+        assert results.seed(999) == 999;
+        assert results.value(999) == 999 * 999;
+        assert results.get(10).equals(new Twin(10, 100));
+        assert results.contains(30, 900);
+        assert !results.contains(30, 901);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void indexBeyondSizeShouldThrowException() {
+        TwinResults results = new TwinResults();
+        results.add(1, 1);
+        results.seed(1);
+    }
+
+    @Test
+    public void twinQueriesShouldMatchPairQueries() {
+        TwinResults lengths = lengthTwins(1, 10000);
+        List<Pair<Long, Integer>> lengthPairs = equalLengthTwins(1, 10000);
+        assert lengths.size() == lengthPairs.size();
+        for (int i = 0; i < lengths.size(); i++)
+            assert lengthPairs.get(i).equals(new Pair<>(lengths.seed(i), (int) lengths.value(i)));
+
+        TwinResults maxValues = maxValueTwins(1, 10000);
+        assert maxValues.asPairs().equals(equalMaxValueTwins(1, 10000));
+        assert maxValues.equals(maxValueTwins(1, 10000));
+        assert maxValues.hashCode() == maxValueTwins(1, 10000).hashCode();
+        assert !maxValues.equals(lengths);
+        assert lengthTwins(28, 30).toString().equals("[(28, 19), (29, 19)]");
+    }
+}
@@ -0,0 +1,66 @@
+package collatz;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static collatz.Collatz.*;
+
+public class TwinSpliteratorTest {
+
+    private static List<Twin> twinsOf(TwinResults results) {
+        List<Twin> twins = new ArrayList<>();
+        for (int i = 0; i < results.size(); i++) {
+            twins.add(results.get(i));
+        }
+        return twins;
+    }
+
+    @Test
+    public void lengthTwinStreamsShouldMatchEqualLengthTwins() {
+        List<Twin> expected = twinsOf(lengthTwins(1, 100000));
+        assert equalLengthTwinsStream(1, 100000, false).collect(Collectors.toList()).equals(expected);
+        assert equalLengthTwinsStream(1, 100000, true).collect(Collectors.toList()).equals(expected);
+    }
+
+    @Test
+    public void maxValueTwinStreamsShouldMatchEqualMaxValueTwins() {
+        List<Twin> expected = twinsOf(maxValueTwins(1, 100000));
+        assert equalMaxValueTwinsStream(1, 100000, false).collect(Collectors.toList()).equals(expected);
+        assert equalMaxValueTwinsStream(1, 100000, true).collect(Collectors.toList()).equals(expected);
+    }
+
+    @Test
+    public void maxValueTwinStreamsShouldSkipPeaksPastLong() {
+        //The peak of 8528817511 does not fit into a long
+        long lo = TrajectoryStats.LONG_PEAK_BOUND - 20;
+        List<Twin> twins = equalMaxValueTwinsStream(lo, lo + 40, false).collect(Collectors.toList());
+        assert twins.equals(List.of(new Twin(8528817490L, 163938197968L), new Twin(8528817500L, 25935535312L)));
+    }
+
+    @Test
+    public void streamsShouldStopEarlyBeyondTableLimit() {
+        long lo = 1L << 40;
+        List<Twin> first = equalLengthTwinsStream(lo, Long.MAX_VALUE / 4, false).limit(5)
+                .collect(Collectors.toList());
+        assert first.size() == 5;
+        for (Twin twin : first) {
+            assert lengthOfSequence(twin.seed()) == twin.value();
+            assert lengthOfSequence(twin.seed() + 1) == twin.value();
+        }
+
+        Twin twin = equalMaxValueTwinsStream(lo, Long.MAX_VALUE / 4, false).findFirst().get();
+        assert largestValueInSequence(twin.seed()) == twin.value();
+        assert largestValueInSequence(twin.seed() + 1) == twin.value();
+
+        long count = equalLengthTwinsStream(lo, lo + 100000, true).count();
+        assert count == equalLengthTwinsStream(lo, lo + 100000, false).count();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void streamWithIncorrectOrderShouldThrowException() {
+        equalLengthTwinsStream(10, 5, false);
+    }
+}
@@ -0,0 +1,34 @@
+package collatz;
+
+import org.junit.Test;
+
+import static collatz.Collatz.*;
+
+public class VectorSequenceLengthsTest {
+
+    @Test
+    public void vectorSequenceLengthsShouldMatchMemoized() {
+        for (long n : new long[]{1, 2, 1000, 1024, 1025, 2049, 100003}) {
+            int[] expected = memoizedComputeSequenceLengths(n);
+            int[] actual = vectorComputeSequenceLengths(n);
+            assert actual.length == expected.length;
+            for (int i = 1; i <= n; i++) {
+                assert actual[i] == expected[i];
+            }
+        }
+    }
+
+    @Test
+    public void chunksShouldOnlyReadEntriesBelowLo() {
+        int lo = 5000;
+        int hi = 2 * lo - 1;
+        int[] expected = memoizedComputeSequenceLengths(hi);
+        int[] actual = new int[hi + 1];
+        System.arraycopy(expected, 0, actual, 0, lo);
+        long steps = VectorSequenceLengths.fillChunk(actual, lo, hi);
+        assert steps > lo;
+        for (int i = 1; i <= hi; i++) {
+            assert actual[i] == expected[i];
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package collatz;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import static collatz.Collatz.*;
+
+public class WideTrajectoryTest {
+
+    private static final BigInteger THREE = BigInteger.valueOf(3);
+
+    //Reference walk done entirely in BigInteger, returning {length, peak}
+    private static BigInteger[] reference(BigInteger n) {
+        BigInteger currentN = n;
+        BigInteger peak = n;
+        long length = 1;
+        while (!currentN.equals(BigInteger.ONE)) {
+            currentN = currentN.testBit(0) ? currentN.multiply(THREE).add(BigInteger.ONE) : currentN.shiftRight(1);
+            peak = peak.max(currentN);
+            length++;
+        }
+        return new BigInteger[]{BigInteger.valueOf(length), peak};
+    }
+
+    @Test
+    public void wideTrajectoriesShouldMatchBigIntegerReference() {
+        Random random = new Random();
+        for (int bits : new int[]{2, 40, 62, 63, 64, 100, 127, 128, 129, 200}) {
+            for (int i = 0; i < 50; i++) {
+                BigInteger seed = new BigInteger(bits, random).setBit(bits - 1);
+                BigInteger[] expected = reference(seed);
+                assert lengthOfSequence(seed) == expected[0].intValue();
+                assert largestValueInSequence(seed).equals(expected[1]);
+            }
+        }
+    }
+
+    @Test
+    public void overflowingLongSeedsShouldMatchBigIntegerReference() {
+        //Path records whose peaks do not fit into a long
+        long[] seeds = {8528817511L, 1980976057694848447L, Long.MAX_VALUE, (Long.MAX_VALUE - 1) / 3 + 1};
+        WideTrajectory trajectory = new WideTrajectory();
+        for (long seed : seeds) {
+            BigInteger[] expected = reference(BigInteger.valueOf(seed));
+            trajectory.walk(seed);
+            assert trajectory.length() == expected[0].intValue();
+            assert trajectory.peak().equals(expected[1]);
+        }
+    }
+
+    @Test
+    public void smallSeedsShouldMatchTrajectoryStats() {
+        WideTrajectory trajectory = new WideTrajectory();
+        for (long n = 1; n <= 1000; n++) {
+            trajectory.walk(n);
+            assert trajectory.length() == lengthOfSequence(n);
+            assert trajectory.peak().longValue() == largestValueInSequence(n);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void wideTrajectoryOfZeroShouldThrowException() {
+        lengthOfSequence(BigInteger.ZERO);
+    }
+}